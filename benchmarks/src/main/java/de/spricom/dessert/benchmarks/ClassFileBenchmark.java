@@ -0,0 +1,78 @@
+package de.spricom.dessert.benchmarks;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.classfile.ClassFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the full {@link ClassFile} parser with the dependency-only parser.
+ * Each invocation parses all classes of the synthetic classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClassFileBenchmark {
+    private byte[][] classes;
+
+    @Setup
+    public void generate() {
+        classes = SyntheticClasspath.realistic().generateClasses().values().toArray(new byte[0][]);
+    }
+
+    @Benchmark
+    public void parseClassFile(Blackhole bh) throws IOException {
+        for (byte[] bytes : classes) {
+            bh.consume(new ClassFile(new ByteArrayInputStream(bytes)));
+        }
+    }
+
+    @Benchmark
+    public void getDependentClasses(Blackhole bh) throws IOException {
+        for (byte[] bytes : classes) {
+            bh.consume(new ClassFile(new ByteArrayInputStream(bytes)).getDependentClasses());
+        }
+    }
+
+    @Benchmark
+    public void readDependentClasses(Blackhole bh) throws IOException {
+        for (byte[] bytes : classes) {
+            bh.consume(ClassFile.readDependentClasses(bytes));
+        }
+    }
+}
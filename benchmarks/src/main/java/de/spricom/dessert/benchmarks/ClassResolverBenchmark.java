@@ -0,0 +1,56 @@
+package de.spricom.dessert.benchmarks;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.resolve.ClassResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to scan the synthetic jars.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClassResolverBenchmark {
+
+    @Param({"1", "4"})
+    public int scanThreads;
+
+    @Benchmark
+    public int scan(SyntheticJars synthetic) throws IOException {
+        ClassResolver resolver = new ClassResolver();
+        resolver.setScanThreads(scanThreads);
+        resolver.add(synthetic.path);
+        return resolver.getClassCount();
+    }
+}
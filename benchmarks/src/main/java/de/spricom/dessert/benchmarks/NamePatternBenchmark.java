@@ -0,0 +1,75 @@
+package de.spricom.dessert.benchmarks;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.matching.NamePattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches all class names of the synthetic classpath against a {@link NamePattern}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NamePatternBenchmark {
+
+    @Param({"synthetic..*", "synthetic.m1*..*", "..p1*.C1*", "synthetic.m3.p4.*", "..*"})
+    public String pattern;
+
+    private NamePattern namePattern;
+    private String[] classnames;
+
+    @Setup
+    public void init() {
+        namePattern = NamePattern.of(pattern);
+        String[] files = SyntheticClasspath.realistic().generateClasses().keySet().toArray(new String[0]);
+        classnames = new String[files.length];
+        for (int i = 0; i < files.length; i++) {
+            classnames[i] = files[i].substring(0, files[i].length() - ".class".length()).replace('/', '.');
+        }
+    }
+
+    @Benchmark
+    public int matches() {
+        int count = 0;
+        for (String classname : classnames) {
+            if (namePattern.matches(classname)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
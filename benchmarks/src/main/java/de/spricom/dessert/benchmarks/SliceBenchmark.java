@@ -0,0 +1,105 @@
+package de.spricom.dessert.benchmarks;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.resolve.ClassResolver;
+import de.spricom.dessert.slicing.Classpath;
+import de.spricom.dessert.slicing.Slice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static de.spricom.dessert.assertions.SliceAssertions.dessert;
+
+/**
+ * Measures slice resolution and slice assertions on the synthetic classpath.
+ * The class files are parsed once during the setup, thus the benchmarks measure
+ * the slicing and the assertions only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SliceBenchmark {
+    private Classpath cp;
+
+    @Setup
+    public void init(SyntheticJars synthetic) throws IOException {
+        ClassResolver resolver = new ClassResolver();
+        resolver.add(synthetic.path);
+        cp = new Classpath(resolver);
+        cp.packageTreeOf("synthetic").getDependencies();
+    }
+
+    @Benchmark
+    public int slicePackageTree() {
+        return cp.slice("synthetic.m1*..*").getClazzes().size();
+    }
+
+    @Benchmark
+    public int sliceClassNames() {
+        return cp.slice("..p1*.C1*").getClazzes().size();
+    }
+
+    @Benchmark
+    public String isCycleFree() {
+        try {
+            dessert(cp.packageTreeOf("synthetic").partitionByPackage()).isCycleFree();
+            return null;
+        } catch (AssertionError er) {
+            return er.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String usesNot() {
+        Slice lower = cp.packageTreeOf("synthetic.m0");
+        Slice upper = cp.packageTreeOf("synthetic.m19");
+        try {
+            dessert(lower).usesNot(upper);
+            return null;
+        } catch (AssertionError er) {
+            return er.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String usesNotClazz() {
+        try {
+            dessert(cp.packageTreeOf("synthetic")).usesNot(cp.asClazz("synthetic.m19.p24.C0"));
+            return null;
+        } catch (AssertionError er) {
+            return er.getMessage();
+        }
+    }
+}
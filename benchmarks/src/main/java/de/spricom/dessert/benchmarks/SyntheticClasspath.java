@@ -0,0 +1,218 @@
+package de.spricom.dessert.benchmarks;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Generates a reproducible classpath of synthetic .class files, so benchmark results
+ * do not depend on the jars found on the machine running the benchmarks.
+ *
+ * <p>The classes are distributed over jars named {@code synthetic-<i>n</i>.jar}. Each jar contains
+ * some packages named {@code synthetic.m<i>n</i>.p<i>k</i>}. Each class has public fields whose
+ * types are other synthetic classes. Most of these dependencies point to the same or to a
+ * preceding package, hence the packages form layers. A small fraction points to a
+ * succeeding package, which produces package cycles. The same seed always produces
+ * the same classes.</p>
+ */
+public final class SyntheticClasspath {
+    private static final int CLASS_MAJOR_VERSION = 50;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_CLASS = 7;
+
+    private final int jars;
+    private final int packagesPerJar;
+    private final int classesPerPackage;
+    private final int dependenciesPerClass;
+    private final double backwardRate;
+    private final long seed;
+
+    public SyntheticClasspath(int jars, int packagesPerJar, int classesPerPackage,
+                              int dependenciesPerClass, double backwardRate, long seed) {
+        this.jars = jars;
+        this.packagesPerJar = packagesPerJar;
+        this.classesPerPackage = classesPerPackage;
+        this.dependenciesPerClass = dependenciesPerClass;
+        this.backwardRate = backwardRate;
+        this.seed = seed;
+    }
+
+    /**
+     * @return 20 jars with 25 packages of 40 classes each, that's 20,000 classes
+     */
+    public static SyntheticClasspath realistic() {
+        return new SyntheticClasspath(20, 25, 40, 8, 0.002, 4711L);
+    }
+
+    public int getClassCount() {
+        return jars * packagesPerJar * classesPerPackage;
+    }
+
+    public String packageName(int jar, int pkg) {
+        return "synthetic.m" + jar + ".p" + pkg;
+    }
+
+    public List<String> packageNames() {
+        List<String> names = new ArrayList<String>(jars * packagesPerJar);
+        for (int jar = 0; jar < jars; jar++) {
+            for (int pkg = 0; pkg < packagesPerJar; pkg++) {
+                names.add(packageName(jar, pkg));
+            }
+        }
+        return names;
+    }
+
+    private String internalClassName(int packageIndex, int cls) {
+        return packageName(packageIndex / packagesPerJar, packageIndex % packagesPerJar).replace('.', '/')
+                + "/C" + cls;
+    }
+
+    /**
+     * Generates all classes in classpath order.
+     *
+     * @return the class file contents by .class file path
+     */
+    public Map<String, byte[]> generateClasses() {
+        Random random = new Random(seed);
+        int packageCount = jars * packagesPerJar;
+        Map<String, byte[]> classes = new LinkedHashMap<String, byte[]>(getClassCount() * 4 / 3 + 1);
+        for (int p = 0; p < packageCount; p++) {
+            for (int c = 0; c < classesPerPackage; c++) {
+                Set<String> dependencies = new LinkedHashSet<String>();
+                for (int d = 0; d < dependenciesPerClass; d++) {
+                    int target;
+                    if (random.nextDouble() < backwardRate && p + 1 < packageCount) {
+                        target = p + 1 + random.nextInt(packageCount - p - 1);
+                    } else if (random.nextBoolean()) {
+                        target = p;
+                    } else {
+                        target = random.nextInt(p + 1);
+                    }
+                    dependencies.add(internalClassName(target, random.nextInt(classesPerPackage)));
+                }
+                String name = internalClassName(p, c);
+                dependencies.remove(name);
+                classes.put(name + ".class", classFile(name, dependencies));
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Writes the jar files to <i>dir</i>.
+     *
+     * @param dir the target directory
+     * @return the jar files in classpath order
+     * @throws IOException if the jars cannot be written
+     */
+    public List<File> writeJars(File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        Map<String, byte[]> classes = generateClasses();
+        List<File> files = new ArrayList<File>(jars);
+        String[] names = classes.keySet().toArray(new String[0]);
+        int classesPerJar = packagesPerJar * classesPerPackage;
+        for (int jar = 0; jar < jars; jar++) {
+            File file = new File(dir, "synthetic-" + jar + ".jar");
+            JarOutputStream out = new JarOutputStream(new FileOutputStream(file));
+            try {
+                for (int i = jar * classesPerJar; i < (jar + 1) * classesPerJar; i++) {
+                    ZipEntry entry = new ZipEntry(names[i]);
+                    entry.setTime(0L);
+                    out.putNextEntry(entry);
+                    out.write(classes.get(names[i]));
+                    out.closeEntry();
+                }
+            } finally {
+                out.close();
+            }
+            files.add(file);
+        }
+        return files;
+    }
+
+    /**
+     * Creates a minimal class file that extends java.lang.Object and has one public field
+     * for each dependency.
+     */
+    static byte[] classFile(String internalName, Set<String> dependencies) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_MAJOR_VERSION);
+            out.writeShort(5 + 2 * dependencies.size());
+            utf8(out, internalName);            // #1
+            classRef(out, 1);                   // #2
+            utf8(out, "java/lang/Object");      // #3
+            classRef(out, 3);                   // #4
+            int field = 0;
+            for (String dependency : dependencies) {
+                utf8(out, "f" + field++);       // #5 + 2 * i
+                utf8(out, "L" + dependency + ";");
+            }
+            out.writeShort(ACC_PUBLIC | ACC_SUPER);
+            out.writeShort(2);
+            out.writeShort(4);
+            out.writeShort(0);
+            out.writeShort(dependencies.size());
+            for (int i = 0; i < dependencies.size(); i++) {
+                out.writeShort(ACC_PUBLIC);
+                out.writeShort(5 + 2 * i);
+                out.writeShort(6 + 2 * i);
+                out.writeShort(0);
+            }
+            out.writeShort(0);
+            out.writeShort(0);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot write to byte array", ex);
+        }
+    }
+
+    private static void utf8(DataOutputStream out, String value) throws IOException {
+        out.writeByte(CONSTANT_UTF8);
+        out.writeUTF(value);
+    }
+
+    private static void classRef(DataOutputStream out, int nameIndex) throws IOException {
+        out.writeByte(CONSTANT_CLASS);
+        out.writeShort(nameIndex);
+    }
+}
@@ -0,0 +1,68 @@
+package de.spricom.dessert.benchmarks;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes the jars of the {@link SyntheticClasspath#realistic()} classpath to a temporary
+ * directory that is removed after the benchmark.
+ */
+@State(Scope.Benchmark)
+public class SyntheticJars {
+    public SyntheticClasspath classpath;
+    public File dir;
+    public List<File> jars;
+    public String path;
+
+    @Setup
+    public void writeJars() throws IOException {
+        classpath = SyntheticClasspath.realistic();
+        dir = File.createTempFile("dessert-benchmark", "");
+        if (!dir.delete()) {
+            throw new IOException("Cannot delete " + dir);
+        }
+        jars = classpath.writeJars(dir);
+        StringBuilder sb = new StringBuilder();
+        for (File jar : jars) {
+            if (sb.length() > 0) {
+                sb.append(File.pathSeparator);
+            }
+            sb.append(jar.getPath());
+        }
+        path = sb.toString();
+    }
+
+    @TearDown
+    public void deleteJars() {
+        for (File jar : jars) {
+            jar.delete();
+        }
+        dir.delete();
+    }
+}
@@ -0,0 +1,189 @@
+package de.spricom.dessert.assertions;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.slicing.Clazz;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A set of known dependency violations, that should not fail an assertion.
+ * Thus, existing violations can be frozen while new ones are still detected.
+ * The baseline is stored as a sorted text file with one violation per line:
+ * <pre>
+ *      de.spricom.sample.Foo -&gt; de.spricom.sample.internal.Bar
+ * </pre>
+ * Empty lines and lines starting with '#' are ignored.
+ * <p>
+ * A baseline can be recorded by using {@link SliceAssert#recordingTo(Baseline)}
+ * and written with {@link #save(File)}. Subsequent checks use
+ * {@link SliceAssert#ignoring(Baseline)} to report only violations that
+ * are not contained in the baseline.
+ */
+public class Baseline {
+    private static final String SEPARATOR = " -> ";
+    private static final String ENCODING = "UTF-8";
+
+    private final Map<String, Set<String>> violations = new HashMap<String, Set<String>>();
+    private int size;
+
+    /**
+     * Reads a baseline from a file.
+     *
+     * @param file the baseline file
+     * @return the baseline
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static Baseline load(File file) throws IOException {
+        Reader reader = new InputStreamReader(new FileInputStream(file), ENCODING);
+        try {
+            return read(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads a baseline. The lines need not to be sorted.
+     *
+     * @param reader the source of the baseline
+     * @return the baseline
+     * @throws IOException if the source cannot be read or is malformed
+     */
+    public static Baseline read(Reader reader) throws IOException {
+        Baseline baseline = new Baseline();
+        BufferedReader in = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.length() == 0 || line.charAt(0) == '#') {
+                continue;
+            }
+            int index = line.indexOf(SEPARATOR);
+            if (index <= 0 || index + SEPARATOR.length() == line.length()) {
+                throw new IOException("Malformed baseline entry in line " + lineNumber + ": " + line);
+            }
+            baseline.add(line.substring(0, index).trim(), line.substring(index + SEPARATOR.length()).trim());
+        }
+        return baseline;
+    }
+
+    /**
+     * Writes the baseline to a file, overwriting any existing file.
+     *
+     * @param file the baseline file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(File file) throws IOException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), ENCODING);
+        try {
+            write(writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Writes the violations sorted by class name and dependency name.
+     *
+     * @param writer the destination
+     * @throws IOException if the baseline cannot be written
+     */
+    public void write(Writer writer) throws IOException {
+        BufferedWriter out = new BufferedWriter(writer);
+        for (Map.Entry<String, Set<String>> entry : new TreeMap<String, Set<String>>(violations).entrySet()) {
+            for (String dependency : new TreeSet<String>(entry.getValue())) {
+                out.write(entry.getKey());
+                out.write(SEPARATOR);
+                out.write(dependency);
+                out.write('\n');
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Adds a violation.
+     *
+     * @param className      the name of the class
+     * @param dependencyName the name of the illegal dependency
+     * @return true if the violation has not been contained before
+     */
+    public boolean add(String className, String dependencyName) {
+        Set<String> dependencies = violations.get(className);
+        if (dependencies == null) {
+            dependencies = new HashSet<String>();
+            violations.put(className, dependencies);
+        }
+        if (dependencies.add(dependencyName)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds a violation.
+     *
+     * @param clazz      the class
+     * @param dependency the illegal dependency
+     * @return true if the violation has not been contained before
+     */
+    public boolean add(Clazz clazz, Clazz dependency) {
+        return add(clazz.getName(), dependency.getName());
+    }
+
+    /**
+     * @param className      the name of the class
+     * @param dependencyName the name of the illegal dependency
+     * @return true if the violation is part of the baseline
+     */
+    public boolean contains(String className, String dependencyName) {
+        Set<String> dependencies = violations.get(className);
+        return dependencies != null && dependencies.contains(dependencyName);
+    }
+
+    /**
+     * @param clazz      the class
+     * @param dependency the illegal dependency
+     * @return true if the violation is part of the baseline
+     */
+    public boolean contains(Clazz clazz, Clazz dependency) {
+        return contains(clazz.getName(), dependency.getName());
+    }
+
+    /**
+     * @return the number of violations
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if there are no violations
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -23,6 +23,8 @@ package de.spricom.dessert.assertions;
 import de.spricom.dessert.slicing.Slice;
 import de.spricom.dessert.util.Dag;
 
+import java.util.List;
+
 /**
  * The default implementation used by dessert-core.
  */
@@ -37,6 +39,13 @@ public class DefaultCycleRenderer implements CycleRenderer {
             sb.append(n.toString());
             count++;
         }
+        List<List<Slice>> groups = dag.cycleGroups();
+        if (groups.size() > 1) {
+            sb.append("\n").append(groups.size()).append(" cycle groups:");
+            for (List<Slice> group : groups) {
+                sb.append("\n").append(group);
+            }
+        }
         return sb.toString();
     }
 }
@@ -41,9 +41,22 @@ public class DefaultIllegalDependenciesRenderer implements IllegalDependenciesRe
                 sb.append(" -> ").append(dep.getName()).append("\n");
             }
         }
+        if (violations.getOmittedCount() > 0) {
+            sb.append("... and ").append(violations.getOmittedCount()).append(" more\n");
+        } else if (violations.isDone()) {
+            sb.append("... limit of ").append(count(dependencyViolations)).append(" violation(s) reached\n");
+        }
         return sb.toString();
     }
 
+    private int count(Map<Clazz, Set<Clazz>> dependencyViolations) {
+        int count = 0;
+        for (Set<Clazz> deps : dependencyViolations.values()) {
+            count += deps.size();
+        }
+        return count;
+    }
+
     private Collection<Clazz> sort(Set<Clazz> entries) {
         TreeMap<String, Clazz> sorted = new TreeMap<String, Clazz>();
         for (Clazz entry : entries) {
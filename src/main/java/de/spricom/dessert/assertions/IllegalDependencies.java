@@ -23,15 +23,45 @@ package de.spricom.dessert.assertions;
 import de.spricom.dessert.slicing.Clazz;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
 /**
  * Container for dependency violations during dependency assertion checks.
+ * The number of violations recorded can be limited. Violations beyond that
+ * limit are either counted or the check stops as soon as the limit has been reached.
  */
 public class IllegalDependencies {
     private final Map<Clazz, Set<Clazz>> violations = new HashMap<Clazz, Set<Clazz>>();
+    private final Map<Clazz, Set<Clazz>> omittedViolations = new HashMap<Clazz, Set<Clazz>>();
+    private final int maxViolations;
+    private final boolean countingOmitted;
+    private int count;
+    private int omitted;
+
+    /**
+     * Creates a container that records all violations.
+     */
+    public IllegalDependencies() {
+        this(Integer.MAX_VALUE, false);
+    }
+
+    /**
+     * Creates a container that records at most <i>maxViolations</i> violations.
+     *
+     * @param maxViolations   the maximal number of violations to record
+     * @param countingOmitted true to count the violations beyond the limit,
+     *                        false to stop checking as soon as the limit has been reached
+     */
+    public IllegalDependencies(int maxViolations, boolean countingOmitted) {
+        if (maxViolations < 1) {
+            throw new IllegalArgumentException("maxViolations must be positive: " + maxViolations);
+        }
+        this.maxViolations = maxViolations;
+        this.countingOmitted = countingOmitted;
+    }
 
     /**
      * Add an illegal dependency for a class.
@@ -41,11 +71,30 @@ public class IllegalDependencies {
      */
     public void add(Clazz clazz, Clazz illegalDependency) {
         Set<Clazz> deps = violations.get(clazz);
+        if (count >= maxViolations) {
+            if (deps == null || !deps.contains(illegalDependency)) {
+                countOmitted(clazz, illegalDependency);
+            }
+            return;
+        }
         if (deps == null) {
             deps = new TreeSet<Clazz>();
             violations.put(clazz, deps);
         }
-        deps.add(illegalDependency);
+        if (deps.add(illegalDependency)) {
+            count++;
+        }
+    }
+
+    private void countOmitted(Clazz clazz, Clazz illegalDependency) {
+        Set<Clazz> deps = omittedViolations.get(clazz);
+        if (deps == null) {
+            deps = new HashSet<Clazz>();
+            omittedViolations.put(clazz, deps);
+        }
+        if (deps.add(illegalDependency)) {
+            omitted++;
+        }
     }
 
     /**
@@ -55,12 +104,9 @@ public class IllegalDependencies {
      * @param illegalDependencies the illegal dependencies
      */
     public void add(Clazz clazz, Set<Clazz> illegalDependencies) {
-        Set<Clazz> deps = violations.get(clazz);
-        if (deps == null) {
-            deps = new TreeSet<Clazz>();
-            violations.put(clazz, deps);
+        for (Clazz illegalDependency : illegalDependencies) {
+            add(clazz, illegalDependency);
         }
-        deps.addAll(illegalDependencies);
     }
 
     /**
@@ -76,4 +122,25 @@ public class IllegalDependencies {
     public boolean isEmpty() {
         return violations.isEmpty();
     }
+
+    /**
+     * @return true if the maximal number of violations has been recorded
+     */
+    public boolean isLimitReached() {
+        return count >= maxViolations;
+    }
+
+    /**
+     * @return true if the check can stop, because no further violation would be recorded or counted
+     */
+    public boolean isDone() {
+        return !countingOmitted && isLimitReached();
+    }
+
+    /**
+     * @return the number of distinct violations that have been counted, but not recorded
+     */
+    public int getOmittedCount() {
+        return omitted;
+    }
 }
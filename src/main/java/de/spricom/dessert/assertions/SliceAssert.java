@@ -36,6 +36,11 @@ public class SliceAssert {
     private final Slice union;
     private IllegalDependenciesRenderer violationsRenderer = new DefaultIllegalDependenciesRenderer();
     private CycleRenderer cycleRenderer = new DefaultCycleRenderer();
+    private int maxViolations = Integer.MAX_VALUE;
+    private boolean countingOmitted;
+    private Baseline ignored;
+    private Baseline recording;
+    private boolean usingUsersIndex;
 
     SliceAssert(Iterable<? extends Slice> slices) {
         this.slices = slices;
@@ -66,6 +71,78 @@ public class SliceAssert {
         return this;
     }
 
+    /**
+     * Stop checking on the first dependency violation. Thus, a check fails as fast as possible,
+     * but the {@link AssertionError} reports only a single violation.
+     *
+     * @return this instance (fluent API)
+     */
+    public SliceAssert failFast() {
+        this.maxViolations = 1;
+        this.countingOmitted = false;
+        return this;
+    }
+
+    /**
+     * Report at most <i>maxViolations</i> dependency violations. All further violations
+     * are only counted. This keeps the {@link AssertionError} message for a
+     * code base with lots of violations short.
+     *
+     * @param maxViolations the maximal number of violations to report
+     * @return this instance (fluent API)
+     */
+    public SliceAssert limitViolations(int maxViolations) {
+        if (maxViolations < 1) {
+            throw new IllegalArgumentException("maxViolations must be positive: " + maxViolations);
+        }
+        this.maxViolations = maxViolations;
+        this.countingOmitted = true;
+        return this;
+    }
+
+    /**
+     * Don't report dependency violations contained in the <i>baseline</i>.
+     * Thus, only new violations make a check fail.
+     *
+     * @param baseline the known violations
+     * @return this instance (fluent API)
+     */
+    public SliceAssert ignoring(Baseline baseline) {
+        this.ignored = baseline;
+        return this;
+    }
+
+    /**
+     * Add all dependency violations to the <i>baseline</i> instead of reporting them.
+     * Hence, checks never fail for dependency violations. Violations
+     * contained in a baseline passed to {@link #ignoring(Baseline)} are not added.
+     *
+     * @param baseline the baseline to record the violations to
+     * @return this instance (fluent API)
+     */
+    public SliceAssert recordingTo(Baseline baseline) {
+        this.recording = baseline;
+        return this;
+    }
+
+    /**
+     * Lets {@link #usesNot(Iterable)} and the layer checks walk backwards from the forbidden
+     * classes through {@link Slice#getUsers()}, if there are less of them than classes to check.
+     * The first check builds the inverted dependency index for the whole {@link de.spricom.dessert.slicing.Classpath},
+     * hence this pays off only for many checks with small forbidden slices.
+     * All slices passed must be concrete slices or classes to use the index.
+     *
+     * @return this instance (fluent API)
+     */
+    public SliceAssert usingUsersIndex() {
+        this.usingUsersIndex = true;
+        return this;
+    }
+
+    private IllegalDependencies newIllegalDependencies() {
+        return new IllegalDependencies(maxViolations, countingOmitted);
+    }
+
     /**
      * Assert the current slices have no other dependencies than those contained by the slices
      * passed to this method.
@@ -74,11 +151,14 @@ public class SliceAssert {
      * @return this instance (fluent API)
      */
     public SliceAssert usesOnly(Iterable<Slice> others) {
-        IllegalDependencies illegalDependencies = new IllegalDependencies();
+        IllegalDependencies illegalDependencies = newIllegalDependencies();
         for (Clazz entry : union.getClazzes()) {
             for (Clazz dependency : entry.getDependencies().getClazzes()) {
                 if (!union.contains(dependency) && !containsAny(others, dependency)) {
-                    illegalDependencies.add(entry, dependency);
+                    report(illegalDependencies, entry, dependency);
+                    if (illegalDependencies.isDone()) {
+                        throw new AssertionError(violationsRenderer.render(illegalDependencies));
+                    }
                 }
             }
         }
@@ -107,7 +187,7 @@ public class SliceAssert {
      * @return this instance (fluent API)
      */
     public SliceAssert usesNot(Iterable<Slice> others) {
-        IllegalDependencies illegalDependencies = new IllegalDependencies();
+        IllegalDependencies illegalDependencies = newIllegalDependencies();
         addIllegalDependencies(illegalDependencies, union, others);
         if (!illegalDependencies.isEmpty()) {
             throw new AssertionError(violationsRenderer.render(illegalDependencies));
@@ -127,15 +207,65 @@ public class SliceAssert {
     }
 
     private void addIllegalDependencies(IllegalDependencies illegalDependencies, Slice slice, Iterable<Slice> illegals) {
-        for (Clazz clazz : slice.getClazzes()) {
+        if (illegalDependencies.isDone()) {
+            return;
+        }
+        Set<Clazz> clazzes = slice.getClazzes();
+        Set<Clazz> targets = usingUsersIndex ? concreteClazzes(illegals) : null;
+        if (targets != null && targets.size() < clazzes.size()) {
+            // walk backwards from the smaller side using the inverted dependency index
+            for (Clazz dependency : targets) {
+                for (Clazz clazz : dependency.getUsers().getClazzes()) {
+                    if (clazzes.contains(clazz)) {
+                        report(illegalDependencies, clazz, dependency);
+                        if (illegalDependencies.isDone()) {
+                            return;
+                        }
+                    }
+                }
+            }
+            return;
+        }
+        for (Clazz clazz : clazzes) {
             for (Clazz dependency : clazz.getDependencies().getClazzes()) {
                 if (containsAny(illegals, dependency)) {
-                    illegalDependencies.add(clazz, dependency);
+                    report(illegalDependencies, clazz, dependency);
+                    if (illegalDependencies.isDone()) {
+                        return;
+                    }
                 }
             }
         }
     }
 
+    private void report(IllegalDependencies illegalDependencies, Clazz clazz, Clazz dependency) {
+        if (ignored != null && ignored.contains(clazz, dependency)) {
+            return;
+        }
+        if (recording != null) {
+            recording.add(clazz, dependency);
+            return;
+        }
+        illegalDependencies.add(clazz, dependency);
+    }
+
+    /**
+     * Returns the union of the classes of all slices, if all of them are concrete.
+     *
+     * @param slices the slices
+     * @return the classes or null, if there is some slice that is not concrete
+     */
+    private Set<Clazz> concreteClazzes(Iterable<Slice> slices) {
+        Set<Clazz> clazzes = new HashSet<Clazz>();
+        for (Slice slice : slices) {
+            if (!(slice instanceof ConcreteSlice || slice instanceof Clazz)) {
+                return null;
+            }
+            clazzes.addAll(slice.getClazzes());
+        }
+        return clazzes;
+    }
+
     private boolean containsAny(Iterable<Slice> slices, Clazz clazz) {
         for (Slice slice : slices) {
             if (slice.contains(clazz)) {
@@ -147,16 +277,28 @@ public class SliceAssert {
 
     /**
      * Assert there are no cyclic dependencies.
+     * The dependency graph between the slices is build with a single pass
+     * over the dependencies of all classes. The {@link AssertionError} thrown
+     * reports all groups of slices that form a cycle.
      *
      * @return this instance (fluent API)
      */
     public SliceAssert isCycleFree() {
-        Map<Slice, ConcreteSlice> dependencies = mapDependencies();
+        Map<Clazz, List<Slice>> index = mapSlices();
         Dag<Slice> dag = new Dag<Slice>();
         for (Slice n : slices) {
-            for (Slice m : slices) {
-                if (n != m && n.uses(m)) {
-                    dag.addEdge(n, m);
+            for (Clazz clazz : n.getClazzes()) {
+                for (Clazz dependency : clazz.getDependencies().getClazzes()) {
+                    for (Clazz alternative : dependency.getAlternatives()) {
+                        List<Slice> targets = index.get(alternative);
+                        if (targets != null) {
+                            for (Slice m : targets) {
+                                if (n != m) {
+                                    dag.addEdge(n, m);
+                                }
+                            }
+                        }
+                    }
                 }
             }
         }
@@ -173,7 +315,7 @@ public class SliceAssert {
      * @return this instance (fluent API)
      */
     public SliceAssert isLayeredStrict() {
-        IllegalDependencies illegalDependencies = new IllegalDependencies();
+        IllegalDependencies illegalDependencies = newIllegalDependencies();
         List<Slice> list = asList();
         if (list.size() < 2) {
             return this;
@@ -200,7 +342,7 @@ public class SliceAssert {
      * @return this instance (fluent API)
      */
     public SliceAssert isLayeredRelaxed() {
-        IllegalDependencies illegalDependencies = new IllegalDependencies();
+        IllegalDependencies illegalDependencies = newIllegalDependencies();
         List<Slice> list = asList();
         if (list.size() < 2) {
             return this;
@@ -225,12 +367,26 @@ public class SliceAssert {
         return list;
     }
 
-    private Map<Slice, ConcreteSlice> mapDependencies() {
-        Map<Slice, ConcreteSlice> dependencies = new HashMap<Slice, ConcreteSlice>();
+    /**
+     * Maps each class to the slices it belongs to.
+     *
+     * @return the slices by class
+     */
+    private Map<Clazz, List<Slice>> mapSlices() {
+        Map<Clazz, List<Slice>> index = new HashMap<Clazz, List<Slice>>();
         for (Slice slice : slices) {
-            dependencies.put(slice, slice.getDependencies());
+            for (Clazz clazz : slice.getClazzes()) {
+                List<Slice> list = index.get(clazz);
+                if (list == null) {
+                    list = new ArrayList<Slice>(1);
+                    index.put(clazz, list);
+                } else if (list.contains(slice)) {
+                    continue;
+                }
+                list.add(slice);
+            }
         }
-        return dependencies;
+        return index;
     }
 
     private String renderCycle(Dag<Slice> dag) {
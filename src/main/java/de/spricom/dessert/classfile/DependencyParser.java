@@ -0,0 +1,441 @@
+package de.spricom.dessert.classfile;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.classfile.attribute.SignatureParser;
+import de.spricom.dessert.classfile.constpool.FieldType;
+import de.spricom.dessert.classfile.constpool.MethodType;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Determines the dependent classes of a .class file in a single pass without
+ * building the object model of {@link ClassFile}. Only the constant-pool, the
+ * descriptors of fields and methods and the attributes contributing to
+ * {@link ClassFile#getDependentClasses()} are evaluated. All other attributes,
+ * especially the Code attributes, are skipped by their length.
+ *
+ * <p>The parser works on the raw bytes of the .class file. For the constant-pool
+ * it records only the offset of each entry. Utf8 entries are decoded on demand,
+ * and only the parts that denote a class name. Hence the only strings created
+ * are the names of the dependent classes, the generic signatures and the string
+ * values of annotations.</p>
+ */
+final class DependencyParser {
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private static final int CLASS = 0;
+    private static final int FIELD = 1;
+    private static final int METHOD = 2;
+
+    private static final byte[] SIGNATURE = ascii("Signature");
+    private static final byte[] RUNTIME_VISIBLE_ANNOTATIONS = ascii("RuntimeVisibleAnnotations");
+    private static final byte[] RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS = ascii("RuntimeVisibleParameterAnnotations");
+    private static final byte[] ENCLOSING_METHOD = ascii("EnclosingMethod");
+
+    private final byte[] bytes;
+    private final int length;
+    private final Set<String> classNames = new TreeSet<String>();
+    private int position;
+    private byte[] tags;
+    private int[] offsets;
+
+    /**
+     * @param bytes  the buffer holding the .class file
+     * @param length the length of the .class file, the buffer may be larger
+     */
+    DependencyParser(byte[] bytes, int length) {
+        this.bytes = bytes;
+        this.length = length;
+    }
+
+    private static byte[] ascii(String s) {
+        byte[] b = new byte[s.length()];
+        for (int i = 0; i < b.length; i++) {
+            b[i] = (byte) s.charAt(i);
+        }
+        return b;
+    }
+
+    Set<String> parse() throws IOException {
+        if (length < 10 || ClassFile.MAGIC != u4()) {
+            throw new IOException("Not a class file.");
+        }
+        position += 4; // minor and major version
+        readConstantPool();
+        position += 2; // access flags
+        String thisClass = className(u2());
+        position += 2; // super class, it's a constant-pool entry anyway
+        int interfacesCount = u2();
+        position += 2 * interfacesCount;
+        readMembers(FIELD);
+        readMembers(METHOD);
+        readAttributes(CLASS);
+        if (position != length) {
+            throw new IOException("EOF not reached!");
+        }
+        addConstantPoolDependencies();
+        classNames.remove(thisClass);
+        return classNames;
+    }
+
+    private void readConstantPool() throws IOException {
+        int count = u2();
+        tags = new byte[count];
+        offsets = new int[count];
+        int index = 1;
+        while (index < count) {
+            int tag = u1();
+            tags[index] = (byte) tag;
+            offsets[index] = position;
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    int utf8Length = u2();
+                    position += utf8Length;
+                    break;
+                case CONSTANT_CLASS:
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    position += 2;
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    position += 3;
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    position += 4;
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    position += 8;
+                    index++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant-pool tag: " + tag);
+            }
+            checkBounds();
+            index++;
+        }
+    }
+
+    private void readMembers(int context) throws IOException {
+        int count = u2();
+        for (int i = 0; i < count; i++) {
+            position += 4; // access flags and name
+            addDescriptor(utf8Offset(u2()));
+            readAttributes(context);
+        }
+    }
+
+    private void readAttributes(int context) throws IOException {
+        int count = u2();
+        for (int i = 0; i < count; i++) {
+            int nameOffset = utf8Offset(u2());
+            int attributeLength = u4();
+            int end = position + attributeLength;
+            if (utf8Equals(nameOffset, SIGNATURE)) {
+                addSignature(utf8(u2()), context);
+            } else if (utf8Equals(nameOffset, RUNTIME_VISIBLE_ANNOTATIONS)) {
+                readAnnotations();
+            } else if (utf8Equals(nameOffset, RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS)) {
+                int parameterCount = u1();
+                for (int j = 0; j < parameterCount; j++) {
+                    readAnnotations();
+                }
+            } else if (utf8Equals(nameOffset, ENCLOSING_METHOD)) {
+                position += 2; // enclosing class
+                int methodIndex = u2();
+                if (methodIndex != 0) {
+                    addDescriptor(utf8Offset(u2(entryOffset(methodIndex, CONSTANT_NAME_AND_TYPE) + 2)));
+                }
+            }
+            position = end;
+            checkBounds();
+        }
+    }
+
+    private void addSignature(String signature, int context) {
+        SignatureParser parser = new SignatureParser(signature, classNames);
+        switch (context) {
+            case CLASS:
+                parser.parseClassSignature();
+                break;
+            case METHOD:
+                parser.parseMethodSignature();
+                break;
+            default:
+                parser.parseFieldSignature();
+                break;
+        }
+    }
+
+    private void readAnnotations() throws IOException {
+        int count = u2();
+        for (int i = 0; i < count; i++) {
+            readAnnotation();
+        }
+    }
+
+    private void readAnnotation() throws IOException {
+        addDescriptor(utf8Offset(u2()));
+        int pairCount = u2();
+        for (int i = 0; i < pairCount; i++) {
+            position += 2; // element name
+            readElementValue();
+        }
+    }
+
+    private void readElementValue() throws IOException {
+        char tag = (char) u1();
+        switch (tag) {
+            case 'B':
+            case 'C':
+            case 'D':
+            case 'F':
+            case 'I':
+            case 'J':
+            case 'S':
+            case 'Z':
+                position += 2;
+                break;
+            case 's':
+                addTypeFromString(utf8(u2()));
+                break;
+            case 'e':
+                addDescriptor(utf8Offset(u2()));
+                position += 2;
+                break;
+            case 'c':
+                addDescriptor(utf8Offset(u2()));
+                break;
+            case '@':
+                readAnnotation();
+                break;
+            case '[':
+                int count = u2();
+                for (int i = 0; i < count; i++) {
+                    readElementValue();
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid ElementValue tag: " + tag);
+        }
+    }
+
+    /**
+     * Strings values of annotations are treated as dependencies if they look like a
+     * descriptor. This is the same heuristic as used by {@link ClassFile}.
+     */
+    private void addTypeFromString(String descriptor) {
+        if (FieldType.isFieldDescriptor(descriptor)) {
+            new FieldType(descriptor).addDependentClassNames(classNames);
+        } else if (MethodType.isMethodDescriptor(descriptor)) {
+            new MethodType(descriptor).addDependentClassNames(classNames);
+        }
+    }
+
+    private void addConstantPoolDependencies() throws IOException {
+        for (int i = 1; i < tags.length; i++) {
+            switch (tags[i]) {
+                case CONSTANT_CLASS:
+                    addClass(utf8Offset(u2(offsets[i])));
+                    break;
+                case CONSTANT_NAME_AND_TYPE:
+                    addDescriptor(utf8Offset(u2(offsets[i] + 2)));
+                    break;
+                case CONSTANT_METHOD_TYPE:
+                    addDescriptor(utf8Offset(u2(offsets[i])));
+                    break;
+                default:
+                    // Field-, method- and dynamic references are covered by their NameAndType entries.
+                    break;
+            }
+        }
+    }
+
+    private void addClass(int utf8Offset) {
+        int start = utf8Offset + 2;
+        int end = start + u2(utf8Offset);
+        if (start == end) {
+            return;
+        }
+        if (bytes[start] != '[') {
+            classNames.add(decode(start, end, true));
+            return;
+        }
+        int i = start + 1;
+        while (i < end && bytes[i] == '[') {
+            i++;
+        }
+        if (i < end && bytes[i] == 'L' && bytes[end - 1] == ';') {
+            classNames.add(decode(i + 1, end - 1, true));
+        }
+        // ignore arrays of primitive types
+    }
+
+    /**
+     * Adds all classes referenced by a field or method descriptor. The descriptors
+     * of class-files are guaranteed to be valid, thus it's sufficient to look for
+     * the object types.
+     */
+    private void addDescriptor(int utf8Offset) {
+        int i = utf8Offset + 2;
+        int end = i + u2(utf8Offset);
+        while (i < end) {
+            if (bytes[i] == 'L') {
+                int semicolon = i + 1;
+                while (semicolon < end && bytes[semicolon] != ';') {
+                    semicolon++;
+                }
+                if (semicolon == end) {
+                    throw new IllegalArgumentException("Invalid descriptor: " + decode(utf8Offset + 2, end, false));
+                }
+                classNames.add(decode(i + 1, semicolon, true));
+                i = semicolon;
+            }
+            i++;
+        }
+    }
+
+    private String className(int index) throws IOException {
+        int utf8Offset = utf8Offset(u2(entryOffset(index, CONSTANT_CLASS)));
+        return decode(utf8Offset + 2, utf8Offset + 2 + u2(utf8Offset), true);
+    }
+
+    private String utf8(int index) throws IOException {
+        int utf8Offset = utf8Offset(index);
+        return decode(utf8Offset + 2, utf8Offset + 2 + u2(utf8Offset), false);
+    }
+
+    private int utf8Offset(int index) throws IOException {
+        return entryOffset(index, CONSTANT_UTF8);
+    }
+
+    private int entryOffset(int index, int tag) throws IOException {
+        if (index <= 0 || index >= tags.length || tags[index] != tag) {
+            throw new IOException("No constant-pool entry with tag " + tag + " at #" + index);
+        }
+        return offsets[index];
+    }
+
+    private boolean utf8Equals(int utf8Offset, byte[] value) {
+        if (u2(utf8Offset) != value.length) {
+            return false;
+        }
+        int start = utf8Offset + 2;
+        for (int i = 0; i < value.length; i++) {
+            if (bytes[start + i] != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the modified UTF-8 format used by .class files.
+     *
+     * @param start  first byte to decode
+     * @param end    the end of the range (exclusive)
+     * @param dotted replace each '/' by a '.' to convert an internal class name
+     * @return the decoded string
+     */
+    private String decode(int start, int end, boolean dotted) {
+        char[] chars = new char[end - start];
+        int n = 0;
+        int i = start;
+        while (i < end) {
+            int b = bytes[i] & 0xFF;
+            if (b < 0x80) {
+                chars[n++] = dotted && b == '/' ? '.' : (char) b;
+                i++;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[n++] = (char) (((b & 0x1F) << 6) | (bytes[i + 1] & 0x3F));
+                i += 2;
+            } else {
+                chars[n++] = (char) (((b & 0x0F) << 12) | ((bytes[i + 1] & 0x3F) << 6) | (bytes[i + 2] & 0x3F));
+                i += 3;
+            }
+        }
+        return new String(chars, 0, n);
+    }
+
+    private int u1() throws IOException {
+        if (position >= length) {
+            throw new EOFException();
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    private int u2() throws IOException {
+        if (position + 2 > length) {
+            throw new EOFException();
+        }
+        int value = u2(position);
+        position += 2;
+        return value;
+    }
+
+    private int u2(int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    private int u4() throws IOException {
+        if (position + 4 > length) {
+            throw new EOFException();
+        }
+        int value = (u2(position) << 16) | u2(position + 2);
+        position += 4;
+        return value;
+    }
+
+    private void checkBounds() throws IOException {
+        if (position > length || position < 0) {
+            throw new EOFException();
+        }
+    }
+}
@@ -39,6 +39,16 @@ abstract class AbstractShortNameMatcher implements ShortNameMatcher {
         return shortNameMatchers[next];
     }
 
+    /**
+     * Matches a single short name without creating a substring.
+     *
+     * @param name the identifier containing the short name
+     * @param start the index of the first character of the short name
+     * @param end the index after the last character of the short name
+     * @return true if the short name matches
+     */
+    abstract boolean matches(String name, int start, int end);
+
     @Override
     public boolean isWildcard() {
         return false;
@@ -34,6 +34,11 @@ class AnyShortNameMatcher extends AbstractShortNameMatcher {
         return next();
     }
 
+    @Override
+    boolean matches(String name, int start, int end) {
+        return true;
+    }
+
     public String toString() {
         return "*";
     }
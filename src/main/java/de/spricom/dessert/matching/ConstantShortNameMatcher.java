@@ -37,6 +37,15 @@ class ConstantShortNameMatcher extends AbstractShortNameMatcher {
         return MissShortNameMatcher.MISS;
     }
 
+    @Override
+    boolean matches(String shortName, int start, int end) {
+        return end - start == name.length() && shortName.regionMatches(start, name, 0, end - start);
+    }
+
+    String getName() {
+        return name;
+    }
+
     public String toString() {
         return name;
     }
@@ -0,0 +1,106 @@
+package de.spricom.dessert.matching;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Matches a short name containing "*" wildcards or "|" separated alternatives.
+ * The match is done character by character without any allocation.
+ */
+class GlobShortNameMatcher extends AbstractShortNameMatcher {
+
+    private final String expression;
+    private final int[] alternativeStarts;
+    private final int[] alternativeEnds;
+
+    public GlobShortNameMatcher(ShortNameMatcher[] shortNameMatchers, int index, String expression) {
+        super(shortNameMatchers, index);
+        this.expression = expression;
+        int count = 1;
+        for (int i = 0; i < expression.length(); i++) {
+            if (expression.charAt(i) == '|') {
+                count++;
+            }
+        }
+        alternativeStarts = new int[count];
+        alternativeEnds = new int[count];
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            int end = expression.indexOf('|', start);
+            if (end == -1) {
+                end = expression.length();
+            }
+            alternativeStarts[i] = start;
+            alternativeEnds[i] = end;
+            start = end + 1;
+        }
+    }
+
+    @Override
+    public ShortNameMatcher match(String shortName) {
+        if (matches(shortName, 0, shortName.length())) {
+            return next();
+        }
+        return MissShortNameMatcher.MISS;
+    }
+
+    @Override
+    boolean matches(String name, int start, int end) {
+        for (int i = 0; i < alternativeStarts.length; i++) {
+            if (matches(alternativeStarts[i], alternativeEnds[i], name, start, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Matches a single alternative. If a character does not match, the last "*" is extended
+     * by one character. This is sufficient, because a "*" matches any sequence.
+     */
+    private boolean matches(int globStart, int globEnd, String name, int start, int end) {
+        int g = globStart;
+        int i = start;
+        int starG = -1;
+        int starI = -1;
+        while (i < end) {
+            if (g < globEnd && expression.charAt(g) == '*') {
+                starG = g++;
+                starI = i;
+            } else if (g < globEnd && expression.charAt(g) == name.charAt(i)) {
+                g++;
+                i++;
+            } else if (starG != -1) {
+                g = starG + 1;
+                i = ++starI;
+            } else {
+                return false;
+            }
+        }
+        while (g < globEnd && expression.charAt(g) == '*') {
+            g++;
+        }
+        return g == globEnd;
+    }
+
+    public String toString() {
+        return expression;
+    }
+}
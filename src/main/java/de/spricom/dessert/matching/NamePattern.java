@@ -84,9 +84,14 @@ public class NamePattern implements Comparable<NamePattern> {
     };
 
     private final ShortNameMatcher[] shortNameMatchers;
+    private final AbstractShortNameMatcher[] segments;
 
     private NamePattern(ShortNameMatcher[] shortNameMatchers) {
         this.shortNameMatchers = shortNameMatchers;
+        segments = new AbstractShortNameMatcher[shortNameMatchers.length];
+        for (int i = 0; i < shortNameMatchers.length; i++) {
+            segments[i] = (AbstractShortNameMatcher) shortNameMatchers[i];
+        }
     }
 
     public static NamePattern of(String pattern) {
@@ -124,7 +129,7 @@ public class NamePattern implements Comparable<NamePattern> {
         } else if (part.equals("*")) {
             return new AnyShortNameMatcher(shortNameMatchers, i);
         } else if (part.contains("*") || part.contains("|")) {
-            return new RegexShortNameMatcher(shortNameMatchers, i, part);
+            return new GlobShortNameMatcher(shortNameMatchers, i, part);
         } else {
             return new ConstantShortNameMatcher(shortNameMatchers, i, part);
         }
@@ -150,21 +155,46 @@ public class NamePattern implements Comparable<NamePattern> {
 
     /**
      * Matches 'name' against the pattern.
+     * The name is scanned once from left to right. A ".." wildcard matches any number
+     * of short names. If some short name does not match, the last ".." wildcard is
+     * extended by one more short name and the matching continues from there.
      *
      * @param name the identifier to match
      * @return true if the identifier matches
      */
     public boolean matches(String name) {
-        String[] parts = name.split("\\.");
-        ShortNameMatcher matcher = matcher();
-        for (int i = 0; i < parts.length; i++) {
-            if (!matcher.isMatchPossible()) {
+        int length = name.length();
+        int segment = 0;
+        int start = 0;
+        int wildcardSegment = -1;
+        int wildcardStart = -1;
+        while (start <= length) {
+            if (segment < segments.length && segments[segment].isWildcard()) {
+                wildcardSegment = segment++;
+                wildcardStart = start;
+                continue;
+            }
+            int end = name.indexOf('.', start);
+            if (end == -1) {
+                end = length;
+            }
+            if (segment < segments.length && segments[segment].matches(name, start, end)) {
+                segment++;
+                start = end + 1;
+            } else if (wildcardSegment != -1) {
+                segment = wildcardSegment + 1;
+                int next = name.indexOf('.', wildcardStart);
+                wildcardStart = next == -1 ? length + 1 : next + 1;
+                start = wildcardStart;
+            } else {
                 return false;
             }
-            if (matchesAlternate(parts, i, matcher)) return true;
-            matcher = matcher.match(parts[i]);
         }
-        return matcher.matches();
+        return segment == segments.length;
+    }
+
+    AbstractShortNameMatcher[] segments() {
+        return segments;
     }
 
     /**
@@ -174,25 +204,6 @@ public class NamePattern implements Comparable<NamePattern> {
         return shortNameMatchers[0];
     }
 
-    private boolean matches(String[] parts, int index, ShortNameMatcher matcher) {
-        for (int i = index; i < parts.length; i++) {
-            if (!matcher.isMatchPossible()) {
-                break;
-            }
-            if (matchesAlternate(parts, i, matcher)) return true;
-            matcher = matcher.match(parts[i]);
-        }
-        return matcher.matches();
-    }
-
-    private boolean matchesAlternate(String[] parts, int index, ShortNameMatcher matcher) {
-        if (!matcher.isWildcard()) {
-            return false;
-        }
-        ShortNameMatcher alternate = matcher.next().match(parts[index]);
-        return matches(parts, index + 1, alternate);
-    }
-
     @Override
     public int compareTo(NamePattern o) {
         return Integer.valueOf(shortNameMatchers.length).compareTo(o.shortNameMatchers.length);
@@ -0,0 +1,295 @@
+package de.spricom.dessert.matching;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.*;
+
+/**
+ * Matches a class name against many {@link NamePattern} instances at once.
+ * All patterns are merged into a trie over the short names, thus common prefixes
+ * like "com.foo" are matched only once. The trie is evaluated like a nondeterministic
+ * automaton: The name is scanned once and all trie nodes that can be reached are
+ * advanced in parallel. A ".." wildcard is a node that loops on any short name.
+ *
+ * <p>A NamePatternSet is immutable, hence it can be shared between threads.</p>
+ */
+public final class NamePatternSet {
+    private final NamePattern[] patterns;
+    private final Node root;
+    private final int nodeCount;
+
+    public NamePatternSet(List<NamePattern> patterns) {
+        this.patterns = patterns.toArray(new NamePattern[0]);
+        List<Node> nodes = new ArrayList<Node>();
+        root = new Node(nodes, false);
+        for (int i = 0; i < this.patterns.length; i++) {
+            Node node = root;
+            for (AbstractShortNameMatcher segment : this.patterns[i].segments()) {
+                node = node.child(nodes, segment);
+            }
+            node.accept(i);
+        }
+        for (Node node : nodes) {
+            node.freeze();
+        }
+        nodeCount = nodes.size();
+    }
+
+    public static NamePatternSet of(String... patterns) {
+        List<NamePattern> list = new ArrayList<NamePattern>(patterns.length);
+        for (String pattern : patterns) {
+            list.add(NamePattern.of(pattern));
+        }
+        return new NamePatternSet(list);
+    }
+
+    public int size() {
+        return patterns.length;
+    }
+
+    public NamePattern get(int index) {
+        return patterns[index];
+    }
+
+    /**
+     * Determines all patterns that match <i>name</i>.
+     *
+     * @param name the identifier to match
+     * @return the indices of all matching patterns in ascending order
+     */
+    public int[] match(String name) {
+        Run run = run(name);
+        if (run == null) {
+            return new int[0];
+        }
+        int count = 0;
+        for (int i = 0; i < run.size; i++) {
+            count += run.active[i].accepts.length;
+        }
+        int[] matches = new int[count];
+        count = 0;
+        for (int i = 0; i < run.size; i++) {
+            int[] accepts = run.active[i].accepts;
+            System.arraycopy(accepts, 0, matches, count, accepts.length);
+            count += accepts.length;
+        }
+        Arrays.sort(matches);
+        return matches;
+    }
+
+    /**
+     * @param name the identifier to match
+     * @return the lowest index of all matching patterns or -1 if there is none
+     */
+    public int firstMatch(String name) {
+        Run run = run(name);
+        int first = -1;
+        if (run != null) {
+            for (int i = 0; i < run.size; i++) {
+                int[] accepts = run.active[i].accepts;
+                if (accepts.length > 0 && (first == -1 || accepts[0] < first)) {
+                    first = accepts[0];
+                }
+            }
+        }
+        return first;
+    }
+
+    public boolean matchesAny(String name) {
+        return firstMatch(name) != -1;
+    }
+
+    private Run run(String name) {
+        Run run = new Run(nodeCount);
+        run.add(root);
+        int length = name.length();
+        int start = 0;
+        while (start <= length) {
+            int end = name.indexOf('.', start);
+            if (end == -1) {
+                end = length;
+            }
+            run.step(name, start, end);
+            if (run.size == 0) {
+                return null;
+            }
+            start = end + 1;
+        }
+        return run;
+    }
+
+    public String toString() {
+        return Arrays.toString(patterns);
+    }
+
+    /**
+     * The set of trie nodes reached so far while scanning a name.
+     */
+    private static final class Run {
+        Node[] active;
+        Node[] next;
+        int size;
+        private final int[] stamps;
+        private int stamp = 1;
+
+        Run(int nodeCount) {
+            active = new Node[nodeCount];
+            next = new Node[nodeCount];
+            stamps = new int[nodeCount];
+        }
+
+        void add(Node node) {
+            while (node != null && stamps[node.id] != stamp) {
+                stamps[node.id] = stamp;
+                active[size++] = node;
+                node = node.wildcardChild;
+            }
+        }
+
+        void step(String name, int start, int end) {
+            Node[] current = active;
+            int count = size;
+            active = next;
+            next = current;
+            size = 0;
+            stamp++;
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + name.charAt(i);
+            }
+            for (int i = 0; i < count; i++) {
+                Node node = current[i];
+                if (node.wildcard) {
+                    add(node);
+                }
+                node.addConstantMatch(this, name, start, end, hash);
+                for (int j = 0; j < node.matchers.length; j++) {
+                    if (node.matchers[j].matches(name, start, end)) {
+                        add(node.matcherChildren[j]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Node {
+        final int id;
+        final boolean wildcard;
+        private Map<String, Node> constantMap = new HashMap<String, Node>();
+        private Map<String, AbstractShortNameMatcher> matcherMap = new LinkedHashMap<String, AbstractShortNameMatcher>();
+        private Map<String, Node> matcherChildMap = new HashMap<String, Node>();
+        private List<Integer> acceptList = new ArrayList<Integer>();
+        int[] constantHashes;
+        String[] constantNames;
+        Node[] constantChildren;
+        AbstractShortNameMatcher[] matchers;
+        Node[] matcherChildren;
+        Node wildcardChild;
+        int[] accepts;
+
+        Node(List<Node> nodes, boolean wildcard) {
+            this.id = nodes.size();
+            this.wildcard = wildcard;
+            nodes.add(this);
+        }
+
+        Node child(List<Node> nodes, AbstractShortNameMatcher segment) {
+            if (segment.isWildcard()) {
+                if (wildcardChild == null) {
+                    wildcardChild = new Node(nodes, true);
+                }
+                return wildcardChild;
+            }
+            if (segment instanceof ConstantShortNameMatcher) {
+                String name = ((ConstantShortNameMatcher) segment).getName();
+                Node child = constantMap.get(name);
+                if (child == null) {
+                    child = new Node(nodes, false);
+                    constantMap.put(name, child);
+                }
+                return child;
+            }
+            String key = segment.toString();
+            Node child = matcherChildMap.get(key);
+            if (child == null) {
+                child = new Node(nodes, false);
+                matcherMap.put(key, segment);
+                matcherChildMap.put(key, child);
+            }
+            return child;
+        }
+
+        void accept(int index) {
+            acceptList.add(index);
+        }
+
+        void freeze() {
+            List<Map.Entry<String, Node>> constants = new ArrayList<Map.Entry<String, Node>>(constantMap.entrySet());
+            Collections.sort(constants, new Comparator<Map.Entry<String, Node>>() {
+                @Override
+                public int compare(Map.Entry<String, Node> o1, Map.Entry<String, Node> o2) {
+                    int h1 = o1.getKey().hashCode();
+                    int h2 = o2.getKey().hashCode();
+                    return h1 < h2 ? -1 : (h1 == h2 ? 0 : 1);
+                }
+            });
+            constantHashes = new int[constants.size()];
+            constantNames = new String[constants.size()];
+            constantChildren = new Node[constants.size()];
+            for (int i = 0; i < constants.size(); i++) {
+                constantNames[i] = constants.get(i).getKey();
+                constantHashes[i] = constantNames[i].hashCode();
+                constantChildren[i] = constants.get(i).getValue();
+            }
+            matchers = matcherMap.values().toArray(new AbstractShortNameMatcher[0]);
+            matcherChildren = new Node[matchers.length];
+            for (int i = 0; i < matchers.length; i++) {
+                matcherChildren[i] = matcherChildMap.get(matchers[i].toString());
+            }
+            accepts = new int[acceptList.size()];
+            for (int i = 0; i < accepts.length; i++) {
+                accepts[i] = acceptList.get(i);
+            }
+            constantMap = null;
+            matcherMap = null;
+            matcherChildMap = null;
+            acceptList = null;
+        }
+
+        void addConstantMatch(Run run, String name, int start, int end, int hash) {
+            int index = Arrays.binarySearch(constantHashes, hash);
+            if (index < 0) {
+                return;
+            }
+            while (index > 0 && constantHashes[index - 1] == hash) {
+                index--;
+            }
+            int length = end - start;
+            for (; index < constantHashes.length && constantHashes[index] == hash; index++) {
+                String constant = constantNames[index];
+                if (constant.length() == length && name.regionMatches(start, constant, 0, length)) {
+                    run.add(constantChildren[index]);
+                    return;
+                }
+            }
+        }
+    }
+}
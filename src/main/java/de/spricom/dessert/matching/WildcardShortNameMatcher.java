@@ -29,14 +29,21 @@ class WildcardShortNameMatcher extends AbstractShortNameMatcher {
         super(shortNameMatchers, index);
     }
 
+    /**
+     * The ".." consumes the short name. The alternative that the short name
+     * is matched by the {@link #next()} matcher has to be examined by the caller,
+     * because {@link #isWildcard()} is true.
+     */
     @Override
     public ShortNameMatcher match(String shortName) {
-        if (next().match(shortName).isMatchPossible()) {
-            return next().next();
-        }
         return this;
     }
 
+    @Override
+    boolean matches(String name, int start, int end) {
+        return true;
+    }
+
     @Override
     public boolean isWildcard() {
         return true;
@@ -36,56 +36,56 @@ public final class ClazzPredicates {
     public static final Predicate<Clazz> PUBLIC = new Predicate<Clazz>() {
         @Override
         public boolean test(Clazz clazz) {
-            return clazz.getClassFile().isPublic();
+            return (clazz.getAccessFlags() & ClassFile.ACC_PUBLIC) != 0;
         }
     };
 
     public static final Predicate<Clazz> FINAL = new Predicate<Clazz>() {
         @Override
         public boolean test(Clazz clazz) {
-            return clazz.getClassFile().isFinal();
+            return (clazz.getAccessFlags() & ClassFile.ACC_FINAL) != 0;
         }
     };
 
     public static final Predicate<Clazz> SUPER = new Predicate<Clazz>() {
         @Override
         public boolean test(Clazz clazz) {
-            return clazz.getClassFile().isSuper();
+            return (clazz.getAccessFlags() & ClassFile.ACC_SUPER) != 0;
         }
     };
 
     public static final Predicate<Clazz> INTERFACE = new Predicate<Clazz>() {
         @Override
         public boolean test(Clazz clazz) {
-            return clazz.getClassFile().isInterface();
+            return (clazz.getAccessFlags() & ClassFile.ACC_INTERFACE) != 0;
         }
     };
 
     public static final Predicate<Clazz> ABSTRACT = new Predicate<Clazz>() {
         @Override
         public boolean test(Clazz clazz) {
-            return clazz.getClassFile().isAbstract();
+            return (clazz.getAccessFlags() & ClassFile.ACC_ABSTRACT) != 0;
         }
     };
 
     public static final Predicate<Clazz> SYNTHETIC = new Predicate<Clazz>() {
         @Override
         public boolean test(Clazz clazz) {
-            return clazz.getClassFile().isSynthetic();
+            return (clazz.getAccessFlags() & ClassFile.ACC_SYNTHETIC) != 0;
         }
     };
 
     public static final Predicate<Clazz> ANNOTATION = new Predicate<Clazz>() {
         @Override
         public boolean test(Clazz clazz) {
-            return clazz.getClassFile().isAnnotation();
+            return (clazz.getAccessFlags() & ClassFile.ACC_ANNOTATION) != 0;
         }
     };
 
     public static final Predicate<Clazz> ENUM = new Predicate<Clazz>() {
         @Override
         public boolean test(Clazz clazz) {
-            return clazz.getClassFile().isEnum();
+            return (clazz.getAccessFlags() & ClassFile.ACC_ENUM) != 0;
         }
     };
 
@@ -118,8 +118,8 @@ public final class ClazzPredicates {
         return new Predicate<Clazz>() {
             @Override
             public boolean test(Clazz clazz) {
-                for (String name : clazz.getClassFile().getInterfaces()) {
-                    if (name.equals(interfaceName)) {
+                for (Clazz in : clazz.getImplementedInterfaces()) {
+                    if (in.getName().equals(interfaceName)) {
                         return true;
                     }
                 }
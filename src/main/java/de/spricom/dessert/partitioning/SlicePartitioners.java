@@ -20,8 +20,15 @@ package de.spricom.dessert.partitioning;
  * #L%
  */
 
+import de.spricom.dessert.matching.NamePattern;
+import de.spricom.dessert.matching.NamePatternSet;
+import de.spricom.dessert.slicing.Clazz;
 import de.spricom.dessert.slicing.SlicePartitioner;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import static de.spricom.dessert.partitioning.ClazzPredicates.*;
 import static de.spricom.dessert.util.Predicates.or;
 
@@ -40,4 +47,32 @@ public class SlicePartitioners {
             .split("package internal classes")
             .by(or(EACH))
             .build();
+
+    /**
+     * Creates a partitioner that assigns each class to the first part whose pattern matches
+     * the class name. All patterns are matched in a single pass, thus this scales to many parts.
+     * Classes matching none of the patterns are not assigned to any part.
+     *
+     * @param patternsByPartName part name to pattern, in the order of precedence (i.e. a {@link java.util.LinkedHashMap})
+     * @return the partitioner
+     */
+    public static SlicePartitioner byNamePatterns(Map<String, String> patternsByPartName) {
+        if (patternsByPartName.isEmpty()) {
+            throw new IllegalArgumentException("No patterns given!");
+        }
+        final List<String> names = new ArrayList<String>(patternsByPartName.size());
+        List<NamePattern> patterns = new ArrayList<NamePattern>(patternsByPartName.size());
+        for (Map.Entry<String, String> entry : patternsByPartName.entrySet()) {
+            names.add(entry.getKey());
+            patterns.add(NamePattern.of(entry.getValue()));
+        }
+        final NamePatternSet patternSet = new NamePatternSet(patterns);
+        return new SlicePartitioner() {
+            @Override
+            public String partKey(Clazz clazz) {
+                int index = patternSet.firstMatch(clazz.getName());
+                return index == -1 ? null : names.get(index);
+            }
+        };
+    }
 }
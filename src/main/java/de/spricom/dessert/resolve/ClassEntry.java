@@ -25,6 +25,7 @@ import de.spricom.dessert.classfile.ClassFile;
 import java.net.URI;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A ClassEntry represents a single class file within one classes directory or .jar file.
@@ -32,12 +33,17 @@ import java.util.List;
  * If there is an other .class file with the same name in some other classes directory or
  * .jar file within the {@link ClassResolver} scope it has a reference to a list of all
  * such .class files.
+ *
+ * <p>The {@link ClassFile} and the dependent classes are determined lazily. Both are
+ * guarded by the ClassEntry's lock, thus concurrent threads never analyze the same
+ * .class file twice.</p>
  */
 public abstract class ClassEntry {
     private final String classname;
     private final ClassPackage pckg;
     private List<ClassEntry> alternatives;
     private ClassFile classFile;
+    private Set<String> dependentClasses;
 
     protected ClassEntry(String classname, ClassPackage pckg) {
         this.classname = classname;
@@ -55,7 +61,11 @@ public abstract class ClassEntry {
      * @return the classname without package prefix
      */
     public String getShortName() {
-        return classname.substring(getPackage().getPackageName().length() + 1);
+        String packageName = getPackage().getPackageName();
+        if (packageName.isEmpty()) {
+            return classname;
+        }
+        return classname.substring(packageName.length() + 1);
     }
 
     /**
@@ -65,7 +75,7 @@ public abstract class ClassEntry {
      *
      * @return a chached or frechly resolved instance of the {@link ClassFile}
      */
-    public ClassFile getClassfile() {
+    public synchronized ClassFile getClassfile() {
         if (classFile == null) {
             classFile = resolveClassFile();
             assert classname.equals(classFile.getThisClass()) : classname + " != " + classFile.getThisClass();
@@ -75,6 +85,48 @@ public abstract class ClassEntry {
 
     protected abstract ClassFile resolveClassFile();
 
+    /**
+     * Returns the names of all classes this class depends on. If the dependencies
+     * have been restored from a persistent index no .class file has to be analyzed.
+     * Otherwise they are determined by {@link #resolveDependentClasses()}. The result will be cached
+     * for further calls.
+     *
+     * @return the fully qualified names of all classes this class depends on
+     */
+    public synchronized Set<String> getDependentClasses() {
+        if (dependentClasses == null) {
+            dependentClasses = classFile != null
+                    ? classFile.getDependentClasses()
+                    : resolveDependentClasses();
+        }
+        return dependentClasses;
+    }
+
+    /**
+     * Determines the dependent classes if the {@link ClassFile} has not been resolved, yet.
+     * Implementations should override this to use {@link ClassFile#readDependentClasses(java.io.InputStream)},
+     * which is much faster than resolving the {@link ClassFile}.
+     *
+     * @return the fully qualified names of all classes this class depends on
+     */
+    protected Set<String> resolveDependentClasses() {
+        return getClassfile().getDependentClasses();
+    }
+
+    synchronized void setDependentClasses(Set<String> dependentClasses) {
+        this.dependentClasses = dependentClasses;
+    }
+
+    /**
+     * Drops the cached {@link ClassFile} and dependent classes, thus both will
+     * be determined again on next access. This saves memory if the class won't be
+     * analyzed again.
+     */
+    public synchronized void release() {
+        classFile = null;
+        dependentClasses = null;
+    }
+
     /**
      * @return the {@link ClassPackage} this ClassEntry belongs to.
      */
@@ -102,6 +154,16 @@ public abstract class ClassEntry {
         alt.alternatives = alternatives;
     }
 
+    void removeAlternative() {
+        if (alternatives != null) {
+            alternatives.remove(this);
+            if (alternatives.size() == 1) {
+                alternatives.get(0).alternatives = null;
+            }
+            alternatives = null;
+        }
+    }
+
     /**
      * @return an {@link URI} which identifies the .class file uniquely
      */
@@ -37,12 +37,25 @@ import java.util.logging.Logger;
  */
 public class ClassPackage {
     private static final Logger log = Logger.getLogger(ClassPackage.class.getName());
+    private static final ClassPackage[] NO_PACKAGES = new ClassPackage[0];
+    private static final ClassEntry[] NO_CLASSES = new ClassEntry[0];
 
     private final String packageName;
     private final ClassPackage parent;
-    private final Map<String, ClassPackage> subPackages = new TreeMap<String, ClassPackage>();
-    private final Map<String, ClassEntry> classes = new TreeMap<String, ClassEntry>();
+    /**
+     * The maps are used while the package is modified, i.e. during a scan, a lazy expansion
+     * or a refresh. They are null while the package is unmodified since the last {@link #compact()}.
+     */
+    private Map<String, ClassPackage> subPackages = new TreeMap<String, ClassPackage>();
+    private Map<String, ClassEntry> classes = new TreeMap<String, ClassEntry>();
+    /**
+     * Immutable snapshots of the sub-packages and classes sorted by name, published by {@link #compact()}.
+     * Modifications don't touch them, hence concurrent readers never see a partially modified package.
+     */
+    private volatile ClassPackage[] subPackageArray;
+    private volatile ClassEntry[] classArray;
     private List<ClassPackage> alternatives;
+    private volatile boolean expanded = true;
 
     protected ClassPackage() {
         packageName = "";
@@ -52,6 +65,7 @@ public class ClassPackage {
     public ClassPackage(ClassPackage parent, String packageName) {
         this.parent = parent;
         this.packageName = packageName;
+        parent.modify();
         if (parent.subPackages.put(packageName, this) != null) {
             log.warning(packageName + " appears twice.");
         }
@@ -96,28 +110,165 @@ public class ClassPackage {
      * @return the probably empty list of all direct nested packages of this package
      */
     public List<ClassPackage> getSubPackages() {
-        return new ArrayList<ClassPackage>(subPackages.values());
+        return Collections.unmodifiableList(Arrays.asList(subPackageSnapshot()));
     }
 
     public ClassPackage getSubPackage(String packageName) {
-        return subPackages.get(packageName);
+        return findSubPackage(subPackageSnapshot(), packageName);
     }
 
     /**
      * @return the list of all classes directly contained in this package
      */
     public List<ClassEntry> getClasses() {
-        return new ArrayList<ClassEntry>(classes.values());
+        return Collections.unmodifiableList(Arrays.asList(classSnapshot()));
+    }
+
+    public ClassEntry getClass(String classname) {
+        return findClass(classSnapshot(), classname);
     }
 
     public void addClass(ClassEntry ce) {
+        modify();
         if (classes.put(ce.getClassname(), ce) != null) {
             log.warning(ce.getURI() + " appears twice, using last one.");
         }
     }
 
-    public ClassEntry getClass(String classname) {
-        return classes.get(classname);
+    void removeClass(ClassEntry ce) {
+        modify();
+        classes.remove(ce.getClassname());
+    }
+
+    void removeSubPackage(ClassPackage subPackage) {
+        modify();
+        subPackages.remove(subPackage.getPackageName());
+    }
+
+    /**
+     * Same as {@link #getSubPackages()}, but includes the modifications not published by
+     * {@link #compact()} yet. To be used only by the thread modifying this package.
+     */
+    List<ClassPackage> getCurrentSubPackages() {
+        Map<String, ClassPackage> map = subPackages;
+        return map != null ? new ArrayList<ClassPackage>(map.values()) : Arrays.asList(subPackageArray);
+    }
+
+    ClassPackage getCurrentSubPackage(String packageName) {
+        Map<String, ClassPackage> map = subPackages;
+        return map != null ? map.get(packageName) : findSubPackage(subPackageArray, packageName);
+    }
+
+    List<ClassEntry> getCurrentClasses() {
+        Map<String, ClassEntry> map = classes;
+        return map != null ? new ArrayList<ClassEntry>(map.values()) : Arrays.asList(classArray);
+    }
+
+    ClassEntry getCurrentClass(String classname) {
+        Map<String, ClassEntry> map = classes;
+        return map != null ? map.get(classname) : findClass(classArray, classname);
+    }
+
+    /**
+     * Before the first {@link #compact()} the package is built by a single thread,
+     * thus the maps can be copied. Afterwards only the published arrays are used.
+     */
+    private ClassPackage[] subPackageSnapshot() {
+        ClassPackage[] array = subPackageArray;
+        if (array == null) {
+            Map<String, ClassPackage> map = subPackages;
+            if (map != null) {
+                return map.values().toArray(new ClassPackage[map.size()]);
+            }
+            array = subPackageArray;
+        }
+        return array;
+    }
+
+    private ClassEntry[] classSnapshot() {
+        ClassEntry[] array = classArray;
+        if (array == null) {
+            Map<String, ClassEntry> map = classes;
+            if (map != null) {
+                return map.values().toArray(new ClassEntry[map.size()]);
+            }
+            array = classArray;
+        }
+        return array;
+    }
+
+    private static ClassPackage findSubPackage(ClassPackage[] array, String packageName) {
+        int low = 0;
+        int high = array.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = array[mid].packageName.compareTo(packageName);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return array[mid];
+            }
+        }
+        return null;
+    }
+
+    private static ClassEntry findClass(ClassEntry[] array, String classname) {
+        int low = 0;
+        int high = array.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = array[mid].getClassname().compareTo(classname);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return array[mid];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Publishes the content of this package and all its sub-packages as sorted arrays.
+     * Thus lookups use a binary search and traversals don't allocate anything. A package that
+     * is modified afterwards, i.e. by a refresh or a lazy expansion, copies the arrays into
+     * maps again. The arrays published before stay in place until the package gets
+     * compacted again, so concurrent readers always see an immutable snapshot.
+     *
+     * @see ClassResolver#freeze()
+     */
+    void compact() {
+        if (classes != null) {
+            ClassEntry[] classesSnapshot = classes.isEmpty() ? NO_CLASSES
+                    : classes.values().toArray(new ClassEntry[classes.size()]);
+            ClassPackage[] subPackagesSnapshot = subPackages.isEmpty() ? NO_PACKAGES
+                    : subPackages.values().toArray(new ClassPackage[subPackages.size()]);
+            classArray = classesSnapshot;
+            subPackageArray = subPackagesSnapshot;
+            classes = null;
+            subPackages = null;
+        }
+        for (ClassPackage subPackage : subPackageArray) {
+            subPackage.compact();
+        }
+    }
+
+    private void modify() {
+        if (classes == null) {
+            Map<String, ClassEntry> classMap = new TreeMap<String, ClassEntry>();
+            for (ClassEntry ce : classArray) {
+                classMap.put(ce.getClassname(), ce);
+            }
+            Map<String, ClassPackage> subPackageMap = new TreeMap<String, ClassPackage>();
+            for (ClassPackage subPackage : subPackageArray) {
+                subPackageMap.put(subPackage.packageName, subPackage);
+            }
+            subPackages = subPackageMap;
+            classes = classMap;
+        }
     }
 
     /**
@@ -142,10 +293,48 @@ public class ClassPackage {
         alt.alternatives = alternatives;
     }
 
+    void removeAlternative() {
+        if (alternatives != null) {
+            alternatives.remove(this);
+            if (alternatives.size() == 1) {
+                alternatives.get(0).alternatives = null;
+            }
+            alternatives = null;
+        }
+    }
+
+    /**
+     * A package of a root that has been scanned lazily is not expanded until some
+     * traversal descends into it or some class or package within is looked up by the
+     * {@link ClassResolver}. An unexpanded package has no classes and no sub-packages yet.
+     *
+     * @return true if the content of this package has been scanned
+     * @see ClassResolver#setLazy(boolean)
+     */
+    public boolean isExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Marks this package as not expanded. To be used by roots that scan lazily.
+     *
+     * @see ClassRoot#scanLazily(ClassCollector)
+     */
+    protected final void markUnexpanded() {
+        expanded = false;
+    }
+
+    final void markExpanded() {
+        expanded = true;
+    }
+
     protected final void traverse(ShortNameMatcher matcher, ClassVisitor visitor) {
         if (!matcher.isMatchPossible()) {
             return;
         }
+        if (!expanded) {
+            getRoot().requestExpansion(packageName);
+        }
         if (matcher.isLast()) {
             traverseClasses(matcher, visitor);
         } else {
@@ -157,7 +346,7 @@ public class ClassPackage {
     }
 
     private void traverseClasses(ShortNameMatcher matcher, ClassVisitor visitor) {
-        for (ClassEntry clazz : classes.values()) {
+        for (ClassEntry clazz : classSnapshot()) {
             if (matcher.match(clazz.getShortName()).matches()) {
                 visitor.visit(clazz);
             }
@@ -165,7 +354,7 @@ public class ClassPackage {
     }
 
     private void traverseSubPackages(ShortNameMatcher matcher, ClassVisitor visitor) {
-        for (ClassPackage subPackage : subPackages.values()) {
+        for (ClassPackage subPackage : subPackageSnapshot()) {
             subPackage.traverse(matcher.match(subPackage.getShortName()), visitor);
         }
     }
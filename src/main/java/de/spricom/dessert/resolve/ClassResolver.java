@@ -21,11 +21,18 @@ package de.spricom.dessert.resolve;
  */
 
 import de.spricom.dessert.matching.NamePattern;
+import de.spricom.dessert.util.Assertions;
+import de.spricom.dessert.util.DaemonThreadFactory;
 import de.spricom.dessert.util.Predicate;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 import java.util.logging.Logger;
 
 /**
@@ -49,13 +56,52 @@ import java.util.logging.Logger;
  *
  * <p>Typically one of the static <i>of</i> methods should be used to create
  * a ClassResolver.</p>
+ *
+ * <p>The roots of a path added by {@link #add(String)} can be scanned in parallel,
+ * see {@link #setScanThreads(int)}. The scan results are merged in path order,
+ * thus the alternatives and duplicates are the same as for sequential scanning.</p>
+ *
+ * <p>If an index directory has been set by {@link #setIndexDirectory(File)} the content
+ * and the class dependencies of each JAR file can be persisted by {@link #saveIndex()}.
+ * Unchanged JAR files will then be restored from that index instead of being scanned
+ * and analyzed again. Classes directories are always scanned.</p>
  */
 public final class ClassResolver implements TraversalRoot {
     private static Logger log = Logger.getLogger(ClassResolver.class.getName());
 
+    private static final String[] NESTED_CLASSES_PREFIXES = {"BOOT-INF/classes/", "WEB-INF/classes/"};
+    private static final String[] NESTED_LIB_PREFIXES = {"BOOT-INF/lib/", "WEB-INF/lib/"};
+
     private final List<ClassRoot> path = new ArrayList<ClassRoot>(60);
     private final ClassResolverCache cache = new ClassResolverCache();
-    private boolean frozen;
+    private volatile boolean frozen;
+    private int scanThreads = 1;
+    private File indexDirectory;
+    private IndexValidation indexValidation = IndexValidation.TIMESTAMP;
+    private boolean memoryMappedJars;
+    private boolean fatJarDetection;
+    private int targetRelease = VersionsHelper.BASE_RELEASE;
+    private boolean lazy;
+    /**
+     * The names of all packages that have been expanded in every lazily scanned root, guarded by this.
+     */
+    private final Set<String> expandedPackages = new TreeSet<String>();
+
+    /**
+     * Determines how to detect whether a JAR file has changed since its index
+     * has been written.
+     */
+    public enum IndexValidation {
+        /**
+         * Compares the size and the last modification time of the JAR file.
+         */
+        TIMESTAMP,
+        /**
+         * Compares the size and a CRC-32 checksum of the JAR file's content.
+         * This is more reliable but requires reading each JAR file completely.
+         */
+        CHECKSUM
+    }
 
     /**
      * Creates a ClassResolver for some arbitrary path.
@@ -103,52 +149,479 @@ public final class ClassResolver implements TraversalRoot {
         add(System.getProperty("java.class.path"));
     }
 
+    /**
+     * Adds the classes of the JDK. Up to JDK 8 these are the entries of the boot class path.
+     * For JDK 9 and above that's the Java runtime image accessed by the <i>jrt:/</i> file-system.
+     *
+     * @throws IOException if a directory, a jar file or the runtime image could not be read
+     */
     public void addBootClassPath() throws IOException {
         String path = System.getProperty("sun.boot.class.path");
-        // For JDK 9 there is no sun.boot.class.path property
         if (path != null) {
             add(path);
+        } else if (JrtRoot.isAvailable()) {
+            // For JDK 9 there is no sun.boot.class.path property, but a runtime image
+            if (getRoot(JrtRoot.getModulesFile()) != null) {
+                log.warning("Already on path: " + JrtRoot.getModulesFile().getAbsolutePath());
+            } else {
+                addRoot(new JrtRoot());
+            }
         }
     }
 
     public void add(String path) throws IOException {
+        List<ClassRoot> roots = new ArrayList<ClassRoot>();
         for (String entry : path.split(File.pathSeparator)) {
-            addFile(entry);
+            createRoots(new File(entry), roots);
         }
+        addRoots(roots);
     }
 
     private void addFile(String filename) throws IOException {
         add(new File(filename));
     }
 
+    /**
+     * Adds a directory or a jar file. A war file, or a Spring Boot fat jar if
+     * {@link #setFatJarDetection(boolean)} is enabled, is added as described for {@link #addNested(File)}.
+     *
+     * @param file the directory or the jar file
+     * @throws IOException if the directory or the jar file could not be read
+     */
     public void add(File file) throws IOException {
+        List<ClassRoot> roots = new ArrayList<ClassRoot>();
+        createRoots(file, roots);
+        addRoots(roots);
+    }
+
+    /**
+     * Adds the classes and libraries of a Spring Boot fat jar or a war file. These are
+     * the classes directories <i>BOOT-INF/classes</i> and <i>WEB-INF/classes</i> and
+     * each jar file within <i>BOOT-INF/lib</i> and <i>WEB-INF/lib</i>. Each of them
+     * becomes a separate root. The nested jar files are read from the memory-mapped
+     * outer archive, without extracting them. The root file of a nested root is
+     * the entry path below the outer archive, i.e. <i>app.jar/BOOT-INF/lib/lib.jar</i>.
+     * Other entries of the outer archive are ignored. The methods {@link #add(File)}
+     * and {@link #add(String)} do this for each file with a <i>.war</i> suffix and,
+     * if {@link #setFatJarDetection(boolean)} is enabled, for each Spring Boot fat jar.
+     *
+     * @param archive the fat jar or war file
+     * @throws IOException if the archive or a nested jar file could not be read
+     */
+    public void addNested(File archive) throws IOException {
+        List<ClassRoot> roots = new ArrayList<ClassRoot>();
+        createNestedRoots(archive, roots);
+        addRoots(roots);
+    }
+
+    private void createNestedRoots(File archive, List<ClassRoot> roots) throws IOException {
+        ZipArchive zip = ZipArchive.open(archive);
+        for (String prefix : NESTED_CLASSES_PREFIXES) {
+            if (containsPrefix(zip, prefix)) {
+                addNestedRoot(roots, new NestedRoot(archive, prefix, zip, prefix, targetRelease));
+            }
+        }
+        for (int i = 0; i < zip.size(); i++) {
+            String name = zip.getName(i);
+            if (name.endsWith(".jar") && isNestedLib(name)) {
+                addNestedRoot(roots, new NestedRoot(archive, name, zip.openNested(i), "", targetRelease));
+            }
+        }
+    }
+
+    private boolean containsPrefix(ZipArchive zip, String prefix) {
+        for (int i = 0; i < zip.size(); i++) {
+            if (zip.getName(i).startsWith(prefix) && !zip.isDirectory(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isNestedLib(String name) {
+        for (String prefix : NESTED_LIB_PREFIXES) {
+            if (name.startsWith(prefix) && name.indexOf('/', prefix.length()) == -1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addNestedRoot(List<ClassRoot> roots, ClassRoot root) {
+        if (getRoot(root.getRootFile()) != null || getRoot(roots, root.getRootFile()) != null) {
+            log.warning("Already on path: " + root.getRootFile().getPath());
+        } else {
+            roots.add(root);
+        }
+    }
+
+    private void createRoots(File file, List<ClassRoot> roots) throws IOException {
         if (!file.exists()) {
             log.warning("Does not exist: " + file.getAbsolutePath());
-        } else if (getRoot(file) != null) {
+        } else if (getRoot(file) != null || getRoot(roots, file) != null) {
             log.warning("Already on path: " + file.getAbsolutePath());
         } else if (file.isDirectory()) {
-            addRoot(new DirectoryRoot(file));
+            roots.add(new DirectoryRoot(file));
+        } else if (file.isFile() && (file.getName().endsWith(".war") || isFatJar(file))) {
+            createNestedRoots(file, roots);
         } else if (file.isFile() && file.getName().endsWith(".jar")) {
-            addRoot(new JarRoot(file));
+            roots.add(new JarRoot(file, createIndex(file), memoryMappedJars, targetRelease));
         } else {
             log.warning("Don't know how to process: " + file.getAbsolutePath());
         }
     }
 
+    /**
+     * Detects a Spring Boot fat jar by the directory entry <i>BOOT-INF/</i> or the Spring Boot
+     * manifest attributes. This opens the jar file, thus it's done only if enabled.
+     */
+    private boolean isFatJar(File file) throws IOException {
+        if (!fatJarDetection || !file.getName().endsWith(".jar")) {
+            return false;
+        }
+        JarFile jarFile = new JarFile(file);
+        try {
+            if (jarFile.getEntry("BOOT-INF/") != null) {
+                return true;
+            }
+            Manifest manifest = jarFile.getManifest();
+            if (manifest == null) {
+                return false;
+            }
+            Attributes attributes = manifest.getMainAttributes();
+            return attributes.getValue("Spring-Boot-Classes") != null
+                    || attributes.getValue("Spring-Boot-Lib") != null;
+        } finally {
+            jarFile.close();
+        }
+    }
+
+    private RootIndex createIndex(File jarFile) {
+        if (indexDirectory == null) {
+            return null;
+        }
+        return new RootIndex(indexDirectory, jarFile, indexValidation, targetRelease);
+    }
+
     public void addRoot(ClassRoot root) throws IOException {
+        checkNotFrozen();
+        if (lazy) {
+            synchronized (this) {
+                path.add(root);
+                scan(root, cache);
+                expandKnownPackages(root);
+            }
+        } else {
+            path.add(root);
+            root.scan(cache);
+        }
+    }
+
+    private void scan(ClassRoot root, ClassCollector collector) throws IOException {
+        if (lazy) {
+            root.setResolver(this);
+            root.scanLazily(collector);
+            root.compact();
+        } else {
+            root.scan(collector);
+        }
+    }
+
+    /**
+     * Expands all packages within a lazily scanned root that has been added
+     * after these packages have already been expanded in all other roots.
+     */
+    private void expandKnownPackages(ClassRoot root) {
+        for (String packageName : expandedPackages) {
+            expand(root, packageName);
+        }
+    }
+
+    /**
+     * Expands a package and all its parent packages in each root. The roots are
+     * processed in path order, thus the first root containing a class
+     * still provides the primary {@link ClassEntry} for the classname.
+     *
+     * @param packageName the full qualified package name
+     */
+    synchronized void expandPackage(String packageName) {
+        if (packageName.length() == 0 || expandedPackages.contains(packageName)) {
+            return;
+        }
+        int index = packageName.lastIndexOf('.');
+        expandPackage(index == -1 ? "" : packageName.substring(0, index));
+        for (ClassRoot root : path) {
+            expand(root, packageName);
+        }
+        expandedPackages.add(packageName);
+    }
+
+    private void expand(ClassRoot root, String packageName) {
+        ClassPackage pckg = root.findPackage(packageName);
+        if (pckg == null || pckg.isExpanded()) {
+            return;
+        }
+        cache.addPackage(pckg);
+        try {
+            root.expand(pckg, cache);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to scan package " + packageName
+                    + " of " + root.getRootFile().getAbsolutePath(), ex);
+        }
+        pckg.compact();
+        pckg.markExpanded();
+    }
+
+    /**
+     * Adds several roots at once. If more than one scan thread has been configured
+     * the roots are scanned in parallel. Nevertheless the roots are added in the order
+     * given.
+     *
+     * @param roots the roots to add
+     * @throws IOException if a directory or jar file could not be read
+     * @see #setScanThreads(int)
+     */
+    public void addRoots(List<? extends ClassRoot> roots) throws IOException {
+        if (scanThreads <= 1 || roots.size() <= 1) {
+            for (ClassRoot root : roots) {
+                addRoot(root);
+            }
+        } else {
+            checkNotFrozen();
+            scanInParallel(roots);
+        }
+    }
+
+    private void scanInParallel(List<? extends ClassRoot> roots) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(scanThreads, roots.size()), new DaemonThreadFactory("dessert-scan-"));
+        try {
+            List<Future<DeferredClassCollector>> results = new ArrayList<Future<DeferredClassCollector>>(roots.size());
+            for (final ClassRoot root : roots) {
+                results.add(executor.submit(new Callable<DeferredClassCollector>() {
+                    @Override
+                    public DeferredClassCollector call() throws IOException {
+                        DeferredClassCollector collector = new DeferredClassCollector();
+                        scan(root, collector);
+                        return collector;
+                    }
+                }));
+            }
+            for (int i = 0; i < roots.size(); i++) {
+                DeferredClassCollector collector = await(results.get(i), roots.get(i));
+                if (lazy) {
+                    synchronized (this) {
+                        path.add(roots.get(i));
+                        collector.replay(cache);
+                        expandKnownPackages(roots.get(i));
+                    }
+                } else {
+                    path.add(roots.get(i));
+                    collector.replay(cache);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private DeferredClassCollector await(Future<DeferredClassCollector> result, ClassRoot root) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while scanning " + root.getRootFile().getAbsolutePath());
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw new IOException("Unable to scan " + root.getRootFile().getAbsolutePath(), cause);
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Unable to scan " + root.getRootFile().getAbsolutePath(), cause);
+        }
+    }
+
+    private void checkNotFrozen() {
         if (frozen) {
             throw new IllegalStateException("Cannot add root to a frozen ClassResolver.");
         }
-        path.add(root);
-        root.scan(cache);
     }
 
-    public void freeze() {
+    /**
+     * Sets the maximal number of threads used to scan the roots added by {@link #add(String)}
+     * or {@link #addRoots(List)}. The default is 1, hence all roots are scanned sequentially.
+     * Parallel scanning pays off for a path with many jar files.
+     *
+     * @param scanThreads the number of threads, a value less than 2 disables parallel scanning
+     */
+    public void setScanThreads(int scanThreads) {
+        this.scanThreads = scanThreads;
+    }
+
+    public int getScanThreads() {
+        return scanThreads;
+    }
+
+    /**
+     * Sets the directory for the persistent index of JAR files. The index is used
+     * for all JAR files added afterwards. If not set, which is the default, all JAR files
+     * will be scanned.
+     *
+     * @param indexDirectory the directory for the index files or null to disable the index
+     * @see #saveIndex()
+     */
+    public void setIndexDirectory(File indexDirectory) {
+        this.indexDirectory = indexDirectory;
+    }
+
+    public File getIndexDirectory() {
+        return indexDirectory;
+    }
+
+    /**
+     * Sets how to detect changed JAR files. The default is {@link IndexValidation#TIMESTAMP}.
+     *
+     * @param indexValidation the validation strategy
+     */
+    public void setIndexValidation(IndexValidation indexValidation) {
+        Assertions.notNull(indexValidation, "indexValidation");
+        this.indexValidation = indexValidation;
+    }
+
+    public IndexValidation getIndexValidation() {
+        return indexValidation;
+    }
+
+    /**
+     * Enables reading the JAR files added afterwards by memory-mapping them and
+     * parsing the zip central directory directly instead of using {@link java.util.jar.JarFile}.
+     * Then the classes of a JAR file can be read concurrently without locking.
+     * The default is false. A JAR file that cannot be memory-mapped, i.e. a zip64 archive,
+     * is read by {@link java.util.jar.JarFile} anyway. On Windows a memory-mapped file
+     * cannot be deleted or replaced as long as the mapping has not been garbage collected.
+     *
+     * @param memoryMappedJars true to memory-map JAR files
+     */
+    public void setMemoryMappedJars(boolean memoryMappedJars) {
+        this.memoryMappedJars = memoryMappedJars;
+    }
+
+    public boolean isMemoryMappedJars() {
+        return memoryMappedJars;
+    }
+
+    /**
+     * Enables the detection of Spring Boot fat jars among the JAR files added afterwards
+     * by {@link #add(File)} or {@link #add(String)}. Such a jar is added as described for
+     * {@link #addNested(File)}. The default is false, because each JAR file has to be
+     * opened once more, even if it will be restored from the index. War files are always
+     * added that way, fat jars can also be added explicitly by {@link #addNested(File)}.
+     *
+     * @param fatJarDetection true to detect fat jars
+     */
+    public void setFatJarDetection(boolean fatJarDetection) {
+        this.fatJarDetection = fatJarDetection;
+    }
+
+    public boolean isFatJarDetection() {
+        return fatJarDetection;
+    }
+
+    /**
+     * Sets the release to resolve multi-release JAR files for. For each class the
+     * versioned entry with the highest release not above the target release is used, or the
+     * unversioned entry if there is none. The other variants are neither added nor analyzed.
+     * The default is {@link VersionsHelper#BASE_RELEASE}, which uses the unversioned entries only.
+     * The target release applies to all JAR files added afterwards.
+     *
+     * @param targetRelease the Java release, i.e. 11 or 17
+     */
+    public void setTargetRelease(int targetRelease) {
+        this.targetRelease = targetRelease;
+    }
+
+    public int getTargetRelease() {
+        return targetRelease;
+    }
+
+    /**
+     * Enables lazy scanning for all roots added afterwards. Then a directory or JAR file
+     * is scanned only at the top-level when it is added. The content of each package is
+     * scanned on demand when some traversal descends into it or when a class or package is
+     * looked up by name. Hence a test that uses only a small part of a huge class path
+     * starts much faster. A JAR file still has to read its central directory once, but
+     * creates the class entries on demand. Roots that don't support lazy scanning are
+     * scanned completely. The default is false.
+     * <p>
+     * In lazy mode {@link #getClassCount()}, {@link #getPackageCount()} and
+     * {@link #getDuplicates()} reflect the packages expanded so far only. Looking up
+     * classes or packages is synchronized.
+     *
+     * @param lazy true to scan lazily
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Writes the index for each JAR file that has not been restored from a valid index.
+     * Therefore the dependencies of all classes within these JAR files have to be
+     * determined, thus the first call may take a while. Does nothing if no index
+     * directory has been set before the JAR files have been added.
+     *
+     * @throws IOException if an index file could not be written
+     */
+    public void saveIndex() throws IOException {
+        for (ClassRoot root : path) {
+            root.saveIndex();
+        }
+    }
+
+    /**
+     * Updates the classes directories in place after they have been changed, i.e. by a compiler.
+     * Only directories whose modification time has changed are listed again, and only .class files
+     * that have been modified after they have been read will be analyzed again. JAR files are
+     * not refreshed. The resolver must not be used by other threads during the refresh.
+     *
+     * @return the names of all classes that have been added, removed or modified
+     * @throws IOException if a directory could not be read
+     */
+    public synchronized Set<String> refresh() throws IOException {
+        Set<String> changed = new TreeSet<String>();
+        for (ClassRoot root : path) {
+            root.refresh(cache, changed);
+        }
+        compact();
+        return changed;
+    }
+
+    /**
+     * Prevents adding further roots. The packages of all roots are compacted into sorted arrays,
+     * thus lookups and traversals don't allocate anything afterwards.
+     */
+    public synchronized void freeze() {
         frozen = true;
+        compact();
     }
 
-    public ClassRoot getRoot(File file) {
+    private void compact() {
         for (ClassRoot root : path) {
+            root.compact();
+        }
+    }
+
+    public ClassRoot getRoot(File file) {
+        return getRoot(path, file);
+    }
+
+    private static ClassRoot getRoot(List<ClassRoot> roots, File file) {
+        for (ClassRoot root : roots) {
             if (root.getRootFile().equals(file)) {
                 return root;
             }
@@ -157,6 +630,12 @@ public final class ClassResolver implements TraversalRoot {
     }
 
     public ClassPackage getPackage(String packageName) {
+        if (lazy) {
+            synchronized (this) {
+                expandPackage(packageName);
+                return cache.getPackage(packageName);
+            }
+        }
         return cache.getPackage(packageName);
     }
 
@@ -179,6 +658,13 @@ public final class ClassResolver implements TraversalRoot {
     }
 
     public ClassEntry getClassEntry(String classname) {
+        if (lazy) {
+            synchronized (this) {
+                int index = classname.lastIndexOf('.');
+                expandPackage(index == -1 ? "" : classname.substring(0, index));
+                return cache.getClassEntry(classname);
+            }
+        }
         return cache.getClassEntry(classname);
     }
 
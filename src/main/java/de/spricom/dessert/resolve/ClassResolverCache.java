@@ -52,6 +52,32 @@ class ClassResolverCache implements ClassCollector {
         }
     }
 
+    void removePackage(ClassPackage pckg) {
+        String pn = pckg.getPackageName();
+        List<ClassPackage> alternatives = pckg.getAlternatives();
+        if (alternatives == null) {
+            packages.remove(pn);
+        } else {
+            pckg.removeAlternative();
+            packages.put(pn, alternatives.get(0));
+        }
+    }
+
+    void removeClass(ClassEntry ce) {
+        String cn = ce.getClassname();
+        List<ClassEntry> alternatives = ce.getAlternatives();
+        if (alternatives == null) {
+            classes.remove(cn);
+        } else {
+            ce.removeAlternative();
+            ClassEntry first = alternatives.get(0);
+            classes.put(cn, first);
+            if (first.getAlternatives() == null) {
+                duplicates.remove(cn);
+            }
+        }
+    }
+
     ClassPackage getPackage(String packageName) {
         return packages.get(packageName);
     }
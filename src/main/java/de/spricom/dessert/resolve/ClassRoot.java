@@ -26,10 +26,12 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Set;
 import java.util.jar.Manifest;
 
 public abstract class ClassRoot extends ClassPackage implements TraversalRoot {
     private final File rootFile;
+    private ClassResolver resolver;
 
     protected ClassRoot(File rootFile) {
         this.rootFile = rootFile;
@@ -37,6 +39,75 @@ public abstract class ClassRoot extends ClassPackage implements TraversalRoot {
 
     protected abstract void scan(ClassCollector classCollector) throws IOException;
 
+    /**
+     * Scans only the top-level of this root. Packages below are created, but
+     * marked as unexpanded by {@link #markUnexpanded()}. They are not passed to the collector.
+     * Their content is scanned on demand by {@link #expand(ClassPackage, ClassCollector)}.
+     * The default implementation scans the whole root.
+     *
+     * @param classCollector the collector for all classes and packages found
+     * @throws IOException if the root could not be read
+     */
+    protected void scanLazily(ClassCollector classCollector) throws IOException {
+        scan(classCollector);
+    }
+
+    /**
+     * Scans the classes and the direct sub-packages of a package that has been left
+     * unexpanded by {@link #scanLazily(ClassCollector)}. The sub-packages must be
+     * marked as unexpanded again. The package itself has already been passed to the collector.
+     *
+     * @param pckg           the unexpanded package
+     * @param classCollector the collector for all classes found
+     * @throws IOException if the root could not be read
+     */
+    protected void expand(ClassPackage pckg, ClassCollector classCollector) throws IOException {
+    }
+
+    void setResolver(ClassResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    void requestExpansion(String packageName) {
+        resolver.expandPackage(packageName);
+    }
+
+    /**
+     * Looks up a package by walking down from this root without expanding any package.
+     *
+     * @param packageName the full qualified package name
+     * @return the package or null if it does not exist or some parent package has not been expanded
+     */
+    ClassPackage findPackage(String packageName) {
+        ClassPackage pckg = this;
+        while (pckg != null && pckg.getPackageName().length() < packageName.length()) {
+            int start = pckg.getPackageName().length() == 0 ? 0 : pckg.getPackageName().length() + 1;
+            int end = packageName.indexOf('.', start);
+            pckg = pckg.getCurrentSubPackage(end == -1 ? packageName : packageName.substring(0, end));
+        }
+        return pckg;
+    }
+
+    /**
+     * Writes the persistent index for this root, if this kind of root supports
+     * an index and the current index is missing or outdated.
+     *
+     * @throws IOException if the index could not be written
+     */
+    void saveIndex() throws IOException {
+    }
+
+    /**
+     * Updates this root in place if its content has changed since it has been scanned.
+     * Does nothing for roots that are not expected to change, like JAR files.
+     *
+     * @param cache   the cache to update
+     * @param changed collects the names of all classes added, removed or modified
+     * @throws IOException if the root could not be read
+     */
+    void refresh(ClassResolverCache cache, Set<String> changed) throws IOException {
+    }
+
     public final void traverse(NamePattern pattern, ClassVisitor visitor) {
         traverse(pattern.matcher(), visitor);
     }
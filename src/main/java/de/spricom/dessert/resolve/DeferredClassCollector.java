@@ -0,0 +1,67 @@
+package de.spricom.dessert.resolve;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the packages and classes found while a {@link ClassRoot} is scanned
+ * by a worker thread. The recorded entries are passed to the real collector
+ * by {@link #replay(ClassCollector)} in the order they have been found. Any
+ * entry added after the replay is forwarded directly.
+ */
+final class DeferredClassCollector implements ClassCollector {
+    private List<ClassPackage> packages = new ArrayList<ClassPackage>();
+    private List<ClassEntry> classes = new ArrayList<ClassEntry>();
+    private ClassCollector target;
+
+    @Override
+    public void addClass(ClassEntry cfe) {
+        if (target != null) {
+            target.addClass(cfe);
+        } else {
+            classes.add(cfe);
+        }
+    }
+
+    @Override
+    public void addPackage(ClassPackage pckg) {
+        if (target != null) {
+            target.addPackage(pckg);
+        } else {
+            packages.add(pckg);
+        }
+    }
+
+    void replay(ClassCollector collector) {
+        assert target == null : "replayed twice";
+        for (ClassPackage pckg : packages) {
+            collector.addPackage(pckg);
+        }
+        for (ClassEntry ce : classes) {
+            collector.addClass(ce);
+        }
+        packages = null;
+        classes = null;
+        target = collector;
+    }
+}
@@ -27,21 +27,31 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.Set;
 
 final class DirectoryClassEntry extends ClassEntry {
     private final File classFile;
+    private volatile long lastModified;
 
     DirectoryClassEntry(ClassPackage pckg, File classFile) {
-        super(pckg.getPackageName() + "." + simpleName(classFile), pckg);
+        super(classname(pckg, classFile), pckg);
         this.classFile = classFile;
     }
 
+    static String classname(ClassPackage pckg, File classFile) {
+        if (pckg.getPackageName().isEmpty()) {
+            return simpleName(classFile);
+        }
+        return pckg.getPackageName() + "." + simpleName(classFile);
+    }
+
     private static String simpleName(File classFile) {
         return classFile.getName().substring(0, classFile.getName().length() - ".class".length());
     }
 
     @Override
     public ClassFile resolveClassFile() {
+        lastModified = classFile.lastModified();
         InputStream is = null;
         try {
             is = new FileInputStream(classFile);
@@ -60,6 +70,41 @@ final class DirectoryClassEntry extends ClassEntry {
         }
     }
 
+    @Override
+    protected Set<String> resolveDependentClasses() {
+        lastModified = classFile.lastModified();
+        InputStream is = null;
+        try {
+            is = new FileInputStream(classFile);
+            return ClassFile.readDependentClasses(is);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to read " + classFile.getAbsolutePath(), ex);
+        } finally {
+            if (is != null) {
+                try {
+                    is.close();
+                } catch (IOException ex) {
+                    throw new IllegalStateException("Cannot close stream after reading " + classFile.getAbsolutePath(), ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Invalidates the cached data if the .class file has been modified after it has been read.
+     *
+     * @return true if the cached data has been invalidated
+     */
+    boolean refresh() {
+        long known = lastModified;
+        if (known == 0 || classFile.lastModified() == known) {
+            return false;
+        }
+        lastModified = 0;
+        release();
+        return true;
+    }
+
     @Override
     public URI getURI() {
         return classFile.toURI();
@@ -24,8 +24,14 @@ import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 final class DirectoryRoot extends ClassRoot {
+    private final Map<String, Long> lastModified = new HashMap<String, Long>();
+
     public DirectoryRoot(File dir) {
         super(dir);
     }
@@ -35,8 +41,41 @@ final class DirectoryRoot extends ClassRoot {
         scan(collector, this, getRootFile(), "");
     }
 
+    @Override
+    protected void scanLazily(ClassCollector collector) throws IOException {
+        collector.addPackage(this);
+        list(collector, this, getRootFile(), "");
+    }
+
+    @Override
+    protected void expand(ClassPackage pckg, ClassCollector collector) throws IOException {
+        File dir = new File(getRootFile(), pckg.getPackageName().replace('.', File.separatorChar));
+        list(collector, pckg, dir, pckg.getPackageName() + ".");
+    }
+
+    /**
+     * Lists a single directory. The sub-packages remain unexpanded.
+     */
+    private void list(ClassCollector collector, ClassPackage pckg, File dir, String prefix) throws IOException {
+        lastModified.put(pckg.getPackageName(), dir.lastModified());
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                new ClassPackage(pckg, prefix + file.getName()).markUnexpanded();
+            } else if (file.getName().endsWith(".class")) {
+                ClassEntry classEntry = new DirectoryClassEntry(pckg, file);
+                pckg.addClass(classEntry);
+                collector.addClass(classEntry);
+            }
+        }
+    }
+
     private void scan(ClassCollector collector, ClassPackage pckg, File dir, String prefix) throws IOException {
         collector.addPackage(pckg);
+        lastModified.put(pckg.getPackageName(), dir.lastModified());
         for (File file : dir.listFiles()) {
             if (file.isDirectory()) {
                 String packageName = prefix + file.getName();
@@ -50,6 +89,106 @@ final class DirectoryRoot extends ClassRoot {
         }
     }
 
+    /**
+     * Lists only the directories again whose modification time has changed. Each
+     * .class file that has already been read is checked for modification.
+     * Packages that have not been expanded yet are skipped.
+     */
+    @Override
+    void refresh(final ClassResolverCache cache, final Set<String> changed) throws IOException {
+        ClassCollector collector = new ClassCollector() {
+            @Override
+            public void addClass(ClassEntry ce) {
+                cache.addClass(ce);
+                changed.add(ce.getClassname());
+            }
+
+            @Override
+            public void addPackage(ClassPackage pckg) {
+                cache.addPackage(pckg);
+            }
+        };
+        refresh(collector, cache, changed, this, getRootFile(), "");
+    }
+
+    private void refresh(ClassCollector collector, ClassResolverCache cache, Set<String> changed,
+                         ClassPackage pckg, File dir, String prefix) throws IOException {
+        if (!pckg.isExpanded()) {
+            return;
+        }
+        long modified = dir.lastModified();
+        Long known = lastModified.get(pckg.getPackageName());
+        if (known == null || known != modified) {
+            lastModified.put(pckg.getPackageName(), modified);
+            update(collector, cache, changed, pckg, dir, prefix);
+        }
+        for (ClassEntry ce : pckg.getCurrentClasses()) {
+            if (((DirectoryClassEntry) ce).refresh()) {
+                changed.add(ce.getClassname());
+            }
+        }
+        for (ClassPackage subPackage : pckg.getCurrentSubPackages()) {
+            refresh(collector, cache, changed, subPackage, new File(dir, subPackage.getShortName()),
+                    subPackage.getPackageName() + ".");
+        }
+    }
+
+    private void update(ClassCollector collector, ClassResolverCache cache, Set<String> changed,
+                        ClassPackage pckg, File dir, String prefix) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            files = new File[0];
+        }
+        Set<String> packageNames = new HashSet<String>();
+        Set<String> classnames = new HashSet<String>();
+        for (File file : files) {
+            if (file.isDirectory()) {
+                String packageName = prefix + file.getName();
+                packageNames.add(packageName);
+                if (pckg.getCurrentSubPackage(packageName) == null) {
+                    scan(collector, new ClassPackage(pckg, packageName), file, packageName + ".");
+                }
+            } else if (file.getName().endsWith(".class")) {
+                String classname = DirectoryClassEntry.classname(pckg, file);
+                classnames.add(classname);
+                if (pckg.getCurrentClass(classname) == null) {
+                    ClassEntry classEntry = new DirectoryClassEntry(pckg, file);
+                    pckg.addClass(classEntry);
+                    collector.addClass(classEntry);
+                }
+            }
+        }
+        for (ClassPackage subPackage : pckg.getCurrentSubPackages()) {
+            if (!packageNames.contains(subPackage.getPackageName())) {
+                remove(cache, changed, subPackage);
+            }
+        }
+        for (ClassEntry ce : pckg.getCurrentClasses()) {
+            if (!classnames.contains(ce.getClassname())) {
+                pckg.removeClass(ce);
+                cache.removeClass(ce);
+                changed.add(ce.getClassname());
+            }
+        }
+    }
+
+    private void remove(ClassResolverCache cache, Set<String> changed, ClassPackage pckg) {
+        if (!pckg.isExpanded()) {
+            pckg.getParent().removeSubPackage(pckg);
+            return;
+        }
+        for (ClassPackage subPackage : pckg.getCurrentSubPackages()) {
+            remove(cache, changed, subPackage);
+        }
+        for (ClassEntry ce : pckg.getCurrentClasses()) {
+            cache.removeClass(ce);
+            changed.add(ce.getClassname());
+        }
+        lastModified.remove(pckg.getPackageName());
+        cache.removePackage(pckg);
+        pckg.getParent().removeSubPackage(pckg);
+    }
+
     @Override
     public URL getResource(String name) {
         File file = new File(getRootFile(), name);
@@ -22,26 +22,28 @@ package de.spricom.dessert.resolve;
 
 import de.spricom.dessert.classfile.ClassFile;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.util.Set;
 
 final class JarClassEntry extends ClassEntry {
-    private final JarFile jarFile;
-    private final JarEntry jarEntry;
+    private final JarRoot jarRoot;
+    private final String entryName;
 
-    JarClassEntry(ClassPackage pckg, JarFile jarFile, JarEntry jarEntry) {
-        super(classname(jarEntry), pckg);
-        this.jarFile = jarFile;
-        this.jarEntry = jarEntry;
+    /**
+     * The entry name is only stored if it cannot be derived from the classname,
+     * i.e. for a versioned entry.
+     */
+    JarClassEntry(ClassPackage pckg, JarRoot jarRoot, String entryName) {
+        super(classname(entryName), pckg);
+        this.jarRoot = jarRoot;
+        this.entryName = entryName.equals(defaultEntryName()) ? null : entryName;
     }
 
-    private static String classname(JarEntry jarEntry) {
-        String cn = VersionsHelper.removeVersionPrefix(jarEntry.getName());
+    private static String classname(String entryName) {
+        String cn = VersionsHelper.removeVersionPrefix(entryName);
         return cn.substring(0, cn.length() - ".class".length()).replace('/', '.');
     }
 
@@ -49,30 +51,58 @@ final class JarClassEntry extends ClassEntry {
     public ClassFile resolveClassFile() {
         InputStream is = null;
         try {
-            is = jarFile.getInputStream(jarEntry);
+            is = open();
             ClassFile cf = new ClassFile(is);
             return cf;
         } catch (IOException ex) {
-            throw new IllegalStateException("Unable to read " + jarEntry.getName() + " from " + jarFile.getName(), ex);
+            throw new IllegalStateException("Unable to read " + getEntryName() + " from " + jarRoot.getRootFile().getPath(), ex);
         } finally {
-            if (is != null) {
-                try {
-                    is.close();
-                } catch (IOException ex) {
-                    throw new IllegalStateException("Cannot close stream after reading " + jarEntry.getName() + " from " + jarFile.getName(), ex);
-                }
+            close(is);
+        }
+    }
+
+    @Override
+    protected Set<String> resolveDependentClasses() {
+        InputStream is = null;
+        try {
+            is = open();
+            return ClassFile.readDependentClasses(is);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to read " + getEntryName() + " from " + jarRoot.getRootFile().getPath(), ex);
+        } finally {
+            close(is);
+        }
+    }
+
+    private InputStream open() throws IOException {
+        return jarRoot.openEntry(getEntryName());
+    }
+
+    private void close(InputStream is) {
+        if (is != null) {
+            try {
+                is.close();
+            } catch (IOException ex) {
+                throw new IllegalStateException("Cannot close stream after reading " + getEntryName() + " from " + jarRoot.getRootFile().getPath(), ex);
             }
         }
     }
 
+    String getEntryName() {
+        return entryName != null ? entryName : defaultEntryName();
+    }
+
+    private String defaultEntryName() {
+        return getClassname().replace('.', '/') + ".class";
+    }
+
     @Override
     public URI getURI() {
-        String uri = "jar:" + new File(jarFile.getName()).toURI().toASCIIString() + "!/" + jarEntry.getName();
+        String uri = "jar:" + jarRoot.getRootFile().toURI().toASCIIString() + "!/" + getEntryName();
         try {
             return new URI(uri);
         } catch (URISyntaxException ex) {
             throw new IllegalStateException("Cannot create URI from '" + uri + "'", ex);
         }
     }
-
 }
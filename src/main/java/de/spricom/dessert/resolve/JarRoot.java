@@ -20,67 +20,267 @@ package de.spricom.dessert.resolve;
  * #L%
  */
 
+import de.spricom.dessert.matching.NamePattern;
 import de.spricom.dessert.util.Assertions;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 final class JarRoot extends ClassRoot {
+    private static final Logger log = Logger.getLogger(JarRoot.class.getName());
+
+    /**
+     * Marks the packages created by a lazy scan as unexpanded.
+     */
+    private static final ClassCollector UNEXPANDED = new ClassCollector() {
+        @Override
+        public void addClass(ClassEntry ce) {
+            throw new UnsupportedOperationException("Classes of unexpanded packages must be deferred.");
+        }
+
+        @Override
+        public void addPackage(ClassPackage pckg) {
+            pckg.markUnexpanded();
+        }
+    };
+
+    private final RootIndex index;
+    private final boolean memoryMapped;
+    private final int targetRelease;
     private JarFile jarFileArchive;
+    private volatile ZipArchive zipArchive;
+    /**
+     * Set if the jar file cannot be read by a {@link ZipArchive}, thus {@link JarFile} is used instead.
+     */
+    private volatile boolean zipArchiveUnsupported;
+    private boolean indexed;
+    /**
+     * The entry names of the classes within each unexpanded package, if scanned lazily.
+     */
+    private Map<ClassPackage, List<String>> pending;
+    /**
+     * The dependencies restored from the index, if scanned lazily.
+     */
+    private Map<String, Set<String>> indexedDependencies;
 
     public JarRoot(File jarFile) throws IOException {
+        this(jarFile, null, false, VersionsHelper.BASE_RELEASE);
+    }
+
+    /**
+     * @param jarFile       the jar file
+     * @param index         the persistent index or null
+     * @param memoryMapped  true to read the jar file by a {@link ZipArchive},
+     *                      falls back to {@link JarFile} if the jar file is not supported
+     * @param targetRelease the release to select the classes of a multi-release jar file for
+     */
+    JarRoot(File jarFile, RootIndex index, boolean memoryMapped, int targetRelease) {
         super(jarFile);
+        this.index = index;
+        this.memoryMapped = memoryMapped;
+        this.targetRelease = targetRelease;
+    }
+
+    /**
+     * Reads the whole central directory or index, but creates the class entries
+     * of a package not until it gets expanded.
+     */
+    @Override
+    protected void scanLazily(ClassCollector collector) throws IOException {
+        pending = new HashMap<ClassPackage, List<String>>();
+        scan(collector);
+    }
+
+    @Override
+    protected void expand(ClassPackage pckg, ClassCollector collector) throws IOException {
+        List<String> entryNames = pending.remove(pckg);
+        if (entryNames == null) {
+            return;
+        }
+        for (String entryName : entryNames) {
+            ClassEntry ce = new JarClassEntry(pckg, this, entryName);
+            if (indexedDependencies != null) {
+                ce.setDependentClasses(indexedDependencies.remove(entryName));
+            }
+            pckg.addClass(ce);
+            collector.addClass(ce);
+        }
     }
 
     @Override
-    protected void scan(ClassCollector collector) throws IOException {
-        Map<String, ClassPackage> packages = new HashMap<String, ClassPackage>();
+    protected void scan(final ClassCollector collector) throws IOException {
+        final Map<String, ClassPackage> packages = new HashMap<String, ClassPackage>();
         packages.put("", this);
         collector.addPackage(this);
 
-        JarFile jarFile = getJarFileArchive();
-        Enumeration<JarEntry> entries = jarFile.entries();
-        while (entries.hasMoreElements()) {
-            JarEntry entry = entries.nextElement();
-            if (!entry.isDirectory()
-                    && entry.getName().endsWith(".class")
-                    && !entry.getName().startsWith("META-INF/")) {
-                // TODO: Proper handling of multi-release jar files.
-                addClass(collector, packages, jarFile, entry);
+        if (index != null) {
+            Map<String, Set<String>> indexedEntries = index.load();
+            if (indexedEntries != null) {
+                if (pending != null) {
+                    indexedDependencies = indexedEntries;
+                }
+                for (Map.Entry<String, Set<String>> entry : indexedEntries.entrySet()) {
+                    ClassEntry ce = addClass(collector, packages, entry.getKey());
+                    if (ce != null) {
+                        ce.setDependentClasses(entry.getValue());
+                    }
+                }
+                indexed = true;
+                return;
+            }
+        }
+
+        VariantSelector selector = new VariantSelector(targetRelease) {
+            @Override
+            protected void addClass(String entryName) {
+                JarRoot.this.addClass(collector, packages, entryName);
+            }
+
+            @Override
+            protected boolean isMultiRelease() throws IOException {
+                return JarRoot.this.isMultiRelease();
+            }
+        };
+        ZipArchive zip = getZipArchive();
+        if (zip != null) {
+            for (int i = 0; i < zip.size(); i++) {
+                if (!zip.isDirectory(i)) {
+                    selector.add(zip.getName(i));
+                }
             }
+        } else {
+            JarFile jarFile = getJarFileArchive();
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (!entry.isDirectory()) {
+                    selector.add(entry.getName());
+                }
+            }
+            // JarFile must not be closed to be able to access the content of each JarEntry.
+        }
+        selector.finish();
+    }
+
+    private boolean isMultiRelease() throws IOException {
+        Manifest manifest = getManifest();
+        return manifest != null && "true".equalsIgnoreCase(manifest.getMainAttributes().getValue("Multi-Release"));
+    }
+
+    @Override
+    void saveIndex() throws IOException {
+        if (index == null || indexed) {
+            return;
         }
-        // JarFile must not be closed to be able to access the content of each JarEntry.
+        final Map<String, Set<String>> entries = new LinkedHashMap<String, Set<String>>();
+        traverse(NamePattern.ANY_NAME, new ClassVisitor() {
+            @Override
+            public void visit(ClassEntry ce) {
+                entries.put(((JarClassEntry) ce).getEntryName(), ce.getDependentClasses());
+            }
+        });
+        index.save(entries);
+        indexed = true;
     }
 
-    private JarFile getJarFileArchive() throws IOException {
+    synchronized JarFile getJarFileArchive() throws IOException {
         if (jarFileArchive == null) {
             jarFileArchive = new JarFile(getRootFile());
         }
         return jarFileArchive;
     }
 
-    private void addClass(ClassCollector collector, Map<String, ClassPackage> packages, JarFile jarFile, JarEntry entry) throws IOException {
-        ClassPackage pckg = ensurePackage(collector, packages, packageName(entry));
-        ClassEntry ce = new JarClassEntry(pckg, jarFile, entry);
+    /**
+     * @return the memory-mapped archive or null if not in memory-mapped mode
+     * or the jar file is not supported by {@link ZipArchive}
+     */
+    ZipArchive getZipArchive() {
+        ZipArchive zip = zipArchive;
+        if (zip != null || !memoryMapped || zipArchiveUnsupported) {
+            return zip;
+        }
+        synchronized (this) {
+            if (zipArchive == null && !zipArchiveUnsupported) {
+                try {
+                    zipArchive = ZipArchive.open(getRootFile());
+                } catch (IOException ex) {
+                    log.log(Level.FINE, "Using JarFile to read " + getRootFile().getPath(), ex);
+                    zipArchiveUnsupported = true;
+                }
+            }
+            return zipArchive;
+        }
+    }
+
+    /**
+     * Opens an entry of the jar file. For a memory-mapped jar file the stream
+     * must be consumed before the current thread opens the next entry.
+     *
+     * @param name the entry name
+     * @return the content of the entry
+     * @throws IOException if there is no such entry or it cannot be read
+     */
+    InputStream openEntry(String name) throws IOException {
+        ZipArchive zip = getZipArchive();
+        if (zip != null) {
+            int index = zip.indexOf(name);
+            if (index == -1) {
+                throw new IOException(name + " does not exist");
+            }
+            return zip.open(index);
+        }
+        JarEntry jarEntry = getJarEntry(name);
+        if (jarEntry == null) {
+            throw new IOException(name + " does not exist");
+        }
+        return getJarFileArchive().getInputStream(jarEntry);
+    }
+
+    /**
+     * @return the class entry or null, if it has been deferred until its package gets expanded
+     */
+    private ClassEntry addClass(ClassCollector collector, Map<String, ClassPackage> packages, String entryName) {
+        if (pending != null) {
+            ClassPackage pckg = ensurePackage(UNEXPANDED, packages, packageName(entryName));
+            if (pckg != this) {
+                List<String> entryNames = pending.get(pckg);
+                if (entryNames == null) {
+                    entryNames = new ArrayList<String>();
+                    pending.put(pckg, entryNames);
+                }
+                entryNames.add(entryName);
+                return null;
+            }
+        }
+        ClassPackage pckg = ensurePackage(collector, packages, packageName(entryName));
+        ClassEntry ce = new JarClassEntry(pckg, this, entryName);
         pckg.addClass(ce);
         collector.addClass(ce);
+        return ce;
     }
 
-    private String packageName(JarEntry entry) {
-        String path = VersionsHelper.removeVersionPrefix(entry.getName());
+    private String packageName(String entryName) {
+        String path = VersionsHelper.removeVersionPrefix(entryName);
         return packageName(path, '/').replace('/', '.');
     }
 
-    private ClassPackage ensurePackage(ClassCollector collector, Map<String, ClassPackage> packages, String packageName) {
+    static ClassPackage ensurePackage(ClassCollector collector, Map<String, ClassPackage> packages, String packageName) {
         ClassPackage pckg = packages.get(packageName);
         if (pckg != null) {
             return pckg;
@@ -92,11 +292,11 @@ final class JarRoot extends ClassRoot {
         return pckg;
     }
 
-    private String parentPackageName(String packageName) {
+    private static String parentPackageName(String packageName) {
         return packageName(packageName, '.');
     }
 
-    private String packageName(String name, char separator) {
+    static String packageName(String name, char separator) {
         int index = name.lastIndexOf(separator);
         if (index == -1) {
             return "";
@@ -107,12 +307,12 @@ final class JarRoot extends ClassRoot {
 
     @Override
     public URL getResource(String name) {
-        JarEntry jarEntry = getJarEntry(name);
-        if (jarEntry == null) {
+        String entryName = getEntryName(name);
+        if (entryName == null) {
             return null;
         }
         try {
-            return new URL("jar:" + getRootFile().toURI().toURL() + "!/" + jarEntry.getName());
+            return new URL("jar:" + getRootFile().toURI().toURL() + "!/" + entryName);
         } catch (MalformedURLException ex) {
             throw new IllegalArgumentException("Unable to convert " + getRootFile().toURI() + " to an URL: " + ex, ex);
         }
@@ -120,6 +320,19 @@ final class JarRoot extends ClassRoot {
 
     @Override
     public InputStream getResourceAsStream(String name) {
+        ZipArchive zip = getZipArchive();
+        if (zip != null) {
+            int index = zip.indexOf(stripSlash(name));
+            if (index == -1) {
+                return null;
+            }
+            try {
+                return new ByteArrayInputStream(zip.read(index));
+            } catch (IOException ex) {
+                throw new IllegalArgumentException("Unable to read " + zip.getName(index)
+                        + " from jar-archive " + getRootFile().getPath() + ": " + ex, ex);
+            }
+        }
         JarEntry jarEntry = getJarEntry(name);
         if (jarEntry == null) {
             return null;
@@ -132,13 +345,24 @@ final class JarRoot extends ClassRoot {
         }
     }
 
-    public JarEntry getJarEntry(String name) {
+    private String getEntryName(String name) {
+        ZipArchive zip = getZipArchive();
+        if (zip != null) {
+            int index = zip.indexOf(stripSlash(name));
+            return index == -1 ? null : zip.getName(index);
+        }
+        JarEntry jarEntry = getJarEntry(name);
+        return jarEntry == null ? null : jarEntry.getName();
+    }
+
+    private String stripSlash(String name) {
         Assertions.notNull(name, "name");
+        return name.startsWith("/") ? name.substring(1) : name;
+    }
+
+    public JarEntry getJarEntry(String name) {
         try {
-            if (name.startsWith("/")) {
-                name = name.substring(1);
-            }
-            JarEntry jarEntry = getJarFileArchive().getJarEntry(name);
+            JarEntry jarEntry = getJarFileArchive().getJarEntry(stripSlash(name));
             return jarEntry;
         } catch (IOException ex) {
             throw new IllegalStateException("Unable to read jar-archive " + getRootFile().getPath() + ": " + ex, ex);
@@ -146,6 +370,9 @@ final class JarRoot extends ClassRoot {
     }
 
     public Manifest getManifest() throws IOException {
+        if (getZipArchive() != null) {
+            return super.getManifest();
+        }
         JarFile jarFile = getJarFileArchive();
         Manifest manifest = jarFile.getManifest();
         return manifest;
@@ -0,0 +1,89 @@
+package de.spricom.dessert.resolve;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.classfile.ClassFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+final class JrtClassEntry extends ClassEntry {
+    private final JrtRoot jrtRoot;
+    private final String module;
+    private final String filename;
+
+    JrtClassEntry(ClassPackage pckg, JrtRoot jrtRoot, String module, String filename) {
+        super(pckg.getPackageName() + "." + filename.substring(0, filename.length() - ".class".length()), pckg);
+        this.jrtRoot = jrtRoot;
+        this.module = module;
+        this.filename = filename;
+    }
+
+    private Path getPath() throws IOException {
+        return jrtRoot.getPath(module, getPackage().getPackageName().replace('.', '/') + "/" + filename);
+    }
+
+    @Override
+    public ClassFile resolveClassFile() {
+        InputStream is = null;
+        try {
+            is = Files.newInputStream(getPath());
+            ClassFile cf = new ClassFile(is);
+            return cf;
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to read " + getURI(), ex);
+        } finally {
+            if (is != null) {
+                try {
+                    is.close();
+                } catch (IOException ex) {
+                    throw new IllegalStateException("Cannot close stream after reading " + getURI(), ex);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected Set<String> resolveDependentClasses() {
+        try {
+            return ClassFile.readDependentClasses(Files.readAllBytes(getPath()));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to read " + getURI(), ex);
+        }
+    }
+
+    /**
+     * @return the name of the module this class belongs to
+     */
+    String getModule() {
+        return module;
+    }
+
+    @Override
+    public URI getURI() {
+        // The URI of a class within the runtime image has no /modules prefix.
+        return URI.create("jrt:/" + module + "/" + getPackage().getPackageName().replace('.', '/') + "/" + filename);
+    }
+}
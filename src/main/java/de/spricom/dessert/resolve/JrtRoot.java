@@ -0,0 +1,176 @@
+package de.spricom.dessert.resolve;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A root for the classes of the Java runtime image of JDK 9 and above. The classes
+ * are accessed by the <i>jrt:/</i> file-system. The root file is the <i>lib/modules</i>
+ * file within the java home directory.
+ *
+ * <p>Packages of different modules share the same {@link ClassPackage} tree, because
+ * a package belongs to exactly one module. Each {@link ClassEntry} knows the module it
+ * belongs to.</p>
+ */
+final class JrtRoot extends ClassRoot {
+    private static final URI JRT_URI = URI.create("jrt:/");
+    private static final String MODULES = "/modules";
+    private static final String PACKAGES = "/packages";
+
+    private FileSystem fileSystem;
+
+    JrtRoot() {
+        super(getModulesFile());
+    }
+
+    static File getModulesFile() {
+        return new File(new File(System.getProperty("java.home"), "lib"), "modules");
+    }
+
+    /**
+     * @return true if the current JVM has a runtime image, which is true for JDK 9 or above
+     */
+    static boolean isAvailable() {
+        return getModulesFile().isFile();
+    }
+
+    synchronized FileSystem getFileSystem() throws IOException {
+        if (fileSystem == null) {
+            try {
+                fileSystem = FileSystems.getFileSystem(JRT_URI);
+            } catch (RuntimeException ex) {
+                throw new IOException("Unable to open " + JRT_URI, ex);
+            }
+        }
+        return fileSystem;
+    }
+
+    @Override
+    protected void scan(ClassCollector collector) throws IOException {
+        collector.addPackage(this);
+        DirectoryStream<Path> modules = Files.newDirectoryStream(getFileSystem().getPath(MODULES));
+        try {
+            for (Path moduleDir : modules) {
+                scanDirectory(collector, this, moduleDir, moduleDir.getFileName().toString());
+            }
+        } finally {
+            modules.close();
+        }
+    }
+
+    private void scanDirectory(ClassCollector collector, ClassPackage pckg, Path dir, String module) throws IOException {
+        DirectoryStream<Path> entries = Files.newDirectoryStream(dir);
+        try {
+            for (Path entry : entries) {
+                String filename = entry.getFileName().toString();
+                if (Files.isDirectory(entry)) {
+                    scanDirectory(collector, ensurePackage(collector, pckg, filename), entry, module);
+                } else if (filename.endsWith(".class") && pckg != this) {
+                    ClassEntry ce = new JrtClassEntry(pckg, this, module, filename);
+                    pckg.addClass(ce);
+                    collector.addClass(ce);
+                }
+            }
+        } finally {
+            entries.close();
+        }
+    }
+
+    private ClassPackage ensurePackage(ClassCollector collector, ClassPackage parent, String shortName) {
+        String packageName = parent == this ? shortName : parent.getPackageName() + "." + shortName;
+        ClassPackage pckg = parent.getCurrentSubPackage(packageName);
+        if (pckg == null) {
+            pckg = new ClassPackage(parent, packageName);
+            collector.addPackage(pckg);
+        }
+        return pckg;
+    }
+
+    Path getPath(String module, String path) throws IOException {
+        return getFileSystem().getPath(MODULES, module, path);
+    }
+
+    private Path findResource(String name) throws IOException {
+        if (name.startsWith("/")) {
+            name = name.substring(1);
+        }
+        int index = name.lastIndexOf('/');
+        if (index == -1) {
+            return null;
+        }
+        Path packageDir = getFileSystem().getPath(PACKAGES, name.substring(0, index).replace('/', '.'));
+        if (!Files.isDirectory(packageDir)) {
+            return null;
+        }
+        DirectoryStream<Path> modules = Files.newDirectoryStream(packageDir);
+        try {
+            for (Path module : modules) {
+                Path resource = getPath(module.getFileName().toString(), name);
+                if (Files.exists(resource)) {
+                    return resource;
+                }
+            }
+        } finally {
+            modules.close();
+        }
+        return null;
+    }
+
+    @Override
+    public URL getResource(String name) {
+        try {
+            Path resource = findResource(name);
+            if (resource == null) {
+                return null;
+            }
+            // Path.toUri() would prepend /modules to the path, thus the URL is constructed explicitly.
+            return new URL("jrt:/" + resource.subpath(1, resource.getNameCount()));
+        } catch (MalformedURLException ex) {
+            throw new IllegalArgumentException("Unable to convert " + name + " to an URL: " + ex, ex);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to access " + JRT_URI + ": " + ex, ex);
+        }
+    }
+
+    @Override
+    public InputStream getResourceAsStream(String name) {
+        try {
+            Path resource = findResource(name);
+            if (resource == null) {
+                return null;
+            }
+            return Files.newInputStream(resource);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Unable to read " + name + " from " + JRT_URI + ": " + ex, ex);
+        }
+    }
+}
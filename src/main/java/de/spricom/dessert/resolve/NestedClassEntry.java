@@ -0,0 +1,71 @@
+package de.spricom.dessert.resolve;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.classfile.ClassFile;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Set;
+
+final class NestedClassEntry extends ClassEntry {
+    private final NestedRoot root;
+    private final int index;
+
+    NestedClassEntry(ClassPackage pckg, NestedRoot root, String path, int index) {
+        super(classname(VersionsHelper.removeVersionPrefix(path)), pckg);
+        this.root = root;
+        this.index = index;
+    }
+
+    private static String classname(String path) {
+        return path.substring(0, path.length() - ".class".length()).replace('/', '.');
+    }
+
+    @Override
+    public ClassFile resolveClassFile() {
+        try {
+            return new ClassFile(root.getZipArchive().open(index));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to read " + getClassname() + " from " + root.getRootFile().getPath(), ex);
+        }
+    }
+
+    @Override
+    protected Set<String> resolveDependentClasses() {
+        try {
+            return ClassFile.readDependentClasses(root.getZipArchive().open(index));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to read " + getClassname() + " from " + root.getRootFile().getPath(), ex);
+        }
+    }
+
+    @Override
+    public URI getURI() {
+        String uri = root.getBaseUri() + root.getPath(index);
+        try {
+            return new URI(uri);
+        } catch (URISyntaxException ex) {
+            throw new IllegalStateException("Cannot create URI from '" + uri + "'", ex);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package de.spricom.dessert.resolve;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.Manifest;
+
+/**
+ * A root within an outer archive, i.e. a jar file nested in
+ * <i>BOOT-INF/lib</i> of a Spring Boot fat jar or in <i>WEB-INF/lib</i> of a war file,
+ * or the classes directory <i>BOOT-INF/classes</i> or <i>WEB-INF/classes</i>.
+ * The nested jar file is read in place from the memory-mapped outer archive.
+ * The root file is the path of the nested entry below the outer archive, i.e.
+ * <i>app.jar/BOOT-INF/lib/lib.jar</i>, which does not exist on the file system.
+ */
+final class NestedRoot extends ClassRoot {
+    private final ZipArchive zip;
+    private final String prefix;
+    private final String baseUri;
+    private final int targetRelease;
+
+    /**
+     * @param outerFile     the outer archive
+     * @param path          the entry name of the nested jar file or the classes directory within the outer archive
+     * @param zip           the nested archive or the outer archive for a classes directory
+     * @param prefix        the entry name prefix of all classes within zip
+     * @param targetRelease the release to select the classes of a nested multi-release jar file for
+     */
+    NestedRoot(File outerFile, String path, ZipArchive zip, String prefix, int targetRelease) {
+        super(new File(outerFile, path));
+        this.zip = zip;
+        this.prefix = prefix;
+        this.targetRelease = targetRelease;
+        this.baseUri = "jar:" + outerFile.toURI().toASCIIString() + "!/"
+                + (prefix.length() == 0 ? path + "!/" : prefix);
+    }
+
+    @Override
+    protected void scan(final ClassCollector collector) throws IOException {
+        final Map<String, ClassPackage> packages = new HashMap<String, ClassPackage>();
+        packages.put("", this);
+        collector.addPackage(this);
+        VariantSelector selector = new VariantSelector(targetRelease) {
+            @Override
+            protected void addClass(String path) {
+                String packageName = JarRoot.packageName(VersionsHelper.removeVersionPrefix(path), '/').replace('/', '.');
+                ClassPackage pckg = JarRoot.ensurePackage(collector, packages, packageName);
+                ClassEntry ce = new NestedClassEntry(pckg, NestedRoot.this, path, zip.indexOf(prefix + path));
+                pckg.addClass(ce);
+                collector.addClass(ce);
+            }
+
+            @Override
+            protected boolean isMultiRelease() throws IOException {
+                return NestedRoot.this.isMultiRelease();
+            }
+        };
+        for (int i = 0; i < zip.size(); i++) {
+            String name = zip.getName(i);
+            if (!zip.isDirectory(i) && name.startsWith(prefix)) {
+                selector.add(name.substring(prefix.length()));
+            }
+        }
+        selector.finish();
+    }
+
+    /**
+     * A classes directory is never a multi-release jar, thus its versioned entries are ignored.
+     */
+    private boolean isMultiRelease() throws IOException {
+        if (prefix.length() != 0) {
+            return false;
+        }
+        int index = zip.indexOf("META-INF/MANIFEST.MF");
+        if (index == -1) {
+            return false;
+        }
+        Manifest manifest = new Manifest(new ByteArrayInputStream(zip.read(index)));
+        return "true".equalsIgnoreCase(manifest.getMainAttributes().getValue("Multi-Release"));
+    }
+
+    ZipArchive getZipArchive() {
+        return zip;
+    }
+
+    String getBaseUri() {
+        return baseUri;
+    }
+
+    /**
+     * @param index the index of an entry within zip
+     * @return the entry name relative to the root
+     */
+    String getPath(int index) {
+        return zip.getName(index).substring(prefix.length());
+    }
+
+    @Override
+    public URL getResource(String name) {
+        int index = indexOf(name);
+        if (index == -1) {
+            return null;
+        }
+        try {
+            return new URL(baseUri + getPath(index));
+        } catch (MalformedURLException ex) {
+            throw new IllegalArgumentException("Unable to convert " + baseUri + " to an URL: " + ex, ex);
+        }
+    }
+
+    @Override
+    public InputStream getResourceAsStream(String name) {
+        int index = indexOf(name);
+        if (index == -1) {
+            return null;
+        }
+        try {
+            return new ByteArrayInputStream(zip.read(index));
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Unable to read " + name + " from " + getRootFile().getPath() + ": " + ex, ex);
+        }
+    }
+
+    private int indexOf(String name) {
+        if (name.startsWith("/")) {
+            name = name.substring(1);
+        }
+        return zip.indexOf(prefix + name);
+    }
+}
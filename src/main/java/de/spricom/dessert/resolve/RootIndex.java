@@ -0,0 +1,246 @@
+package de.spricom.dessert.resolve;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.*;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * A persistent index of all .class files within a single .jar file together with
+ * the dependencies of each class. It's used to skip scanning and analyzing .jar files
+ * that did not change since the index has been written.
+ *
+ * <p>The index file records the absolute path, the size, the last modification time and
+ * a CRC-32 checksum of the .jar file. Depending on the {@link ClassResolver.IndexValidation}
+ * either the modification time or the checksum is used to detect changes. The checksum
+ * is computed only for {@link ClassResolver.IndexValidation#CHECKSUM}, otherwise 0 is recorded,
+ * thus such an index is invalid for checksum validation. All strings are
+ * stored only once within a string table, because the same class names are referenced
+ * by many classes.</p>
+ */
+final class RootIndex {
+    private static final Logger log = Logger.getLogger(RootIndex.class.getName());
+
+    private static final int MAGIC = 0x44534958; // DSIX
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final File rootFile;
+    private final File indexDirectory;
+    private final File indexFile;
+    private final ClassResolver.IndexValidation validation;
+
+    RootIndex(File indexDirectory, File rootFile, ClassResolver.IndexValidation validation) {
+        this(indexDirectory, rootFile, validation, VersionsHelper.BASE_RELEASE);
+    }
+
+    /**
+     * The index for a target release above {@link VersionsHelper#BASE_RELEASE} is stored in a separate
+     * file, because a multi-release jar file may provide different classes for it.
+     */
+    RootIndex(File indexDirectory, File rootFile, ClassResolver.IndexValidation validation, int targetRelease) {
+        this.rootFile = rootFile.getAbsoluteFile();
+        this.indexDirectory = indexDirectory;
+        this.indexFile = new File(indexDirectory, rootFile.getName() + "-"
+                + Integer.toHexString(this.rootFile.getPath().hashCode())
+                + (targetRelease > VersionsHelper.BASE_RELEASE ? "-" + targetRelease : "") + ".idx");
+        this.validation = validation;
+    }
+
+    File getIndexFile() {
+        return indexFile;
+    }
+
+    /**
+     * Reads the index file.
+     *
+     * @return the dependencies for each entry name or null if there is no valid index
+     * for the current content of the .jar file
+     */
+    Map<String, Set<String>> load() {
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile), BUFFER_SIZE));
+            if (!isValid(in)) {
+                log.info("Outdated index " + indexFile.getAbsolutePath());
+                return null;
+            }
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+            int entryCount = in.readInt();
+            Map<String, Set<String>> entries = new LinkedHashMap<String, Set<String>>(entryCount * 4 / 3 + 1);
+            for (int i = 0; i < entryCount; i++) {
+                String entryName = string(strings, in.readInt());
+                String[] dependencies = new String[in.readInt()];
+                for (int j = 0; j < dependencies.length; j++) {
+                    dependencies[j] = string(strings, in.readInt());
+                }
+                entries.put(entryName, new TreeSet<String>(Arrays.asList(dependencies)));
+            }
+            return entries;
+        } catch (IOException ex) {
+            log.warning("Ignoring unreadable index " + indexFile.getAbsolutePath() + ": " + ex);
+            return null;
+        } finally {
+            close(in);
+        }
+    }
+
+    private boolean isValid(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            return false;
+        }
+        String path = in.readUTF();
+        long length = in.readLong();
+        long lastModified = in.readLong();
+        long checksum = in.readLong();
+        if (!rootFile.getPath().equals(path) || rootFile.length() != length) {
+            return false;
+        }
+        if (validation == ClassResolver.IndexValidation.CHECKSUM) {
+            return checksum(rootFile) == checksum;
+        }
+        return rootFile.lastModified() == lastModified;
+    }
+
+    private String string(String[] strings, int index) throws IOException {
+        if (index < 0 || index >= strings.length) {
+            throw new IOException("Invalid string reference " + index);
+        }
+        return strings[index];
+    }
+
+    /**
+     * Writes the index file. To prevent other processes from reading a partially written
+     * index, the content is written to a temporary file that is renamed afterwards.
+     *
+     * @param entries the dependencies for each entry name
+     * @throws IOException if the index file could not be written
+     */
+    void save(Map<String, Set<String>> entries) throws IOException {
+        long length = rootFile.length();
+        long lastModified = rootFile.lastModified();
+        long checksum = validation == ClassResolver.IndexValidation.CHECKSUM ? checksum(rootFile) : 0L;
+        Map<String, Integer> strings = stringTable(entries);
+
+        if (!indexDirectory.isDirectory() && !indexDirectory.mkdirs()) {
+            throw new IOException("Unable to create index directory " + indexDirectory.getAbsolutePath());
+        }
+        File tempFile = File.createTempFile(indexFile.getName(), ".tmp", indexDirectory);
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(rootFile.getPath());
+            out.writeLong(length);
+            out.writeLong(lastModified);
+            out.writeLong(checksum);
+            out.writeInt(strings.size());
+            for (String s : strings.keySet()) {
+                out.writeUTF(s);
+            }
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Set<String>> entry : entries.entrySet()) {
+                out.writeInt(strings.get(entry.getKey()));
+                out.writeInt(entry.getValue().size());
+                for (String dependency : entry.getValue()) {
+                    out.writeInt(strings.get(dependency));
+                }
+            }
+            out.close();
+            out = null;
+            replace(tempFile);
+        } finally {
+            close(out);
+            if (tempFile.exists() && !tempFile.delete()) {
+                log.warning("Unable to delete " + tempFile.getAbsolutePath());
+            }
+        }
+    }
+
+    private Map<String, Integer> stringTable(Map<String, Set<String>> entries) {
+        Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+        for (Map.Entry<String, Set<String>> entry : entries.entrySet()) {
+            addString(strings, entry.getKey());
+            for (String dependency : entry.getValue()) {
+                addString(strings, dependency);
+            }
+        }
+        return strings;
+    }
+
+    private void addString(Map<String, Integer> strings, String s) {
+        if (!strings.containsKey(s)) {
+            strings.put(s, strings.size());
+        }
+    }
+
+    private void replace(File tempFile) throws IOException {
+        if (tempFile.renameTo(indexFile)) {
+            return;
+        }
+        // On some platforms an existing file cannot be replaced by a rename.
+        if (indexFile.exists() && !indexFile.delete()) {
+            throw new IOException("Unable to delete outdated index " + indexFile.getAbsolutePath());
+        }
+        if (!tempFile.renameTo(indexFile)) {
+            throw new IOException("Unable to rename " + tempFile.getAbsolutePath() + " to " + indexFile.getName());
+        }
+    }
+
+    static long checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, n);
+            }
+        } finally {
+            in.close();
+        }
+        return crc.getValue();
+    }
+
+    private void close(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ex) {
+                log.warning("Unable to close stream for index " + indexFile.getAbsolutePath() + ": " + ex);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "index " + indexFile.getAbsolutePath() + " for " + rootFile.getPath();
+    }
+}
@@ -0,0 +1,97 @@
+package de.spricom.dessert.resolve;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects exactly one variant of each class of a jar file for the target release within a single
+ * pass over all entries. If the target release is not above {@link VersionsHelper#BASE_RELEASE}
+ * all versioned entries are skipped and the unversioned classes are added immediately.
+ * Otherwise the unversioned classes are added after all entries have been seen,
+ * because a versioned entry that overrides it may follow.
+ */
+abstract class VariantSelector {
+    private final int targetRelease;
+    private final List<String> unversioned = new ArrayList<String>();
+    private final Map<String, String> versioned = new HashMap<String, String>();
+
+    VariantSelector(int targetRelease) {
+        this.targetRelease = targetRelease;
+    }
+
+    /**
+     * @param entryName the name of a file entry relative to the root of the jar file
+     */
+    void add(String entryName) {
+        if (!entryName.endsWith(".class")) {
+            return;
+        }
+        if (!entryName.startsWith("META-INF/")) {
+            if (targetRelease <= VersionsHelper.BASE_RELEASE) {
+                addClass(entryName);
+            } else {
+                unversioned.add(entryName);
+            }
+            return;
+        }
+        int version = VersionsHelper.getVersion(entryName);
+        if (version <= VersionsHelper.BASE_RELEASE || version > targetRelease) {
+            return;
+        }
+        String path = VersionsHelper.removeVersionPrefix(entryName);
+        String selected = versioned.get(path);
+        if (selected == null || VersionsHelper.getVersion(selected) < version) {
+            versioned.put(path, entryName);
+        }
+    }
+
+    void finish() throws IOException {
+        if (!versioned.isEmpty() && !isMultiRelease()) {
+            versioned.clear();
+        }
+        for (String entryName : unversioned) {
+            if (!versioned.containsKey(entryName)) {
+                addClass(entryName);
+            }
+        }
+        for (String entryName : versioned.values()) {
+            addClass(entryName);
+        }
+    }
+
+    /**
+     * Adds the class for the selected entry.
+     *
+     * @param entryName the entry name, including the version prefix for a versioned entry
+     */
+    protected abstract void addClass(String entryName);
+
+    /**
+     * @return true if the manifest of the jar file declares it as a multi-release jar
+     * @throws IOException if the manifest could not be read
+     */
+    protected abstract boolean isMultiRelease() throws IOException;
+}
@@ -24,10 +24,35 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public final class VersionsHelper {
-    private static final Pattern VERSIONED_ENTRY_PREFIX = Pattern.compile("META-INF/versions/\\d+/");
+    /**
+     * The release the unversioned entries of a multi-release jar file belong to.
+     */
+    public static final int BASE_RELEASE = 8;
+
+    private static final String VERSIONS_DIRECTORY = "META-INF/versions/";
+    private static final Pattern VERSIONED_ENTRY_PREFIX = Pattern.compile("META-INF/versions/(\\d+)/");
 
     private VersionsHelper() {}
 
+    /**
+     * @param name the entry name within a jar file
+     * @return the release of a versioned entry of a multi-release jar file, or 0 for any other entry
+     */
+    public static int getVersion(String name) {
+        if (!name.startsWith(VERSIONS_DIRECTORY)) {
+            return 0;
+        }
+        Matcher matcher = VERSIONED_ENTRY_PREFIX.matcher(name);
+        if (matcher.lookingAt()) {
+            try {
+                return Integer.parseInt(matcher.group(1));
+            } catch (NumberFormatException ex) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
     public static String removeVersionPrefix(String name) {
         Matcher matcher = VERSIONED_ENTRY_PREFIX.matcher(name);
         if (matcher.lookingAt()) {
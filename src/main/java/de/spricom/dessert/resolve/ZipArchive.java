@@ -0,0 +1,326 @@
+package de.spricom.dessert.resolve;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A read-only zip archive that is memory-mapped and parses the central directory
+ * by itself. The entries are kept in primitive arrays and looked up by an
+ * open addressing hash table. Reading an entry uses absolute positions of the
+ * mapped buffer only, thus concurrent reads need no locking. Each thread
+ * inflates into reusable buffers.
+ * <p>
+ * Zip64 archives, archives larger than 2 GB and compression methods other than
+ * stored and deflated are not supported. {@link #open(File)} throws an
+ * {@link IOException} for these.
+ */
+final class ZipArchive {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int END_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    /**
+     * Larger buffers are not retained.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<byte[]> INPUT_BUFFER = new ThreadLocal<byte[]>();
+    private static final ThreadLocal<byte[]> OUTPUT_BUFFER = new ThreadLocal<byte[]>();
+
+    private final String location;
+    private final ByteBuffer buffer;
+    private final String[] names;
+    private final int[] offsets;
+    private final int[] compressedSizes;
+    private final int[] sizes;
+    private final byte[] methods;
+    private final int[] table;
+
+    private ZipArchive(String location, ByteBuffer buffer, int count) {
+        this.location = location;
+        this.buffer = buffer;
+        names = new String[count];
+        offsets = new int[count];
+        compressedSizes = new int[count];
+        sizes = new int[count];
+        methods = new byte[count];
+        int capacity = 16;
+        while (capacity < 2 * count) {
+            capacity <<= 1;
+        }
+        table = new int[capacity];
+    }
+
+    /**
+     * Maps the file into memory and reads the central directory. The file
+     * need not to be kept open, the mapping stays valid until the
+     * {@link ZipArchive} has been garbage collected.
+     *
+     * @param file the zip archive
+     * @return the parsed archive
+     * @throws IOException if the file cannot be read, is not a zip archive or is not supported
+     */
+    static ZipArchive open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            long length = raf.length();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException(file.getPath() + " is too large to be mapped.");
+            }
+            ByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+            return parse(file.getPath(), buffer);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static ZipArchive parse(String location, ByteBuffer buffer) throws IOException {
+        int end = findEnd(location, buffer);
+        int count = u2(buffer, end + 10);
+        int directorySize = u4(buffer, end + 12);
+        int directoryOffset = u4(buffer, end + 16);
+        if (count == 0xFFFF || directorySize == -1 || directoryOffset == -1) {
+            throw new IOException(location + " is a zip64 archive.");
+        }
+        ZipArchive zip = new ZipArchive(location, buffer, count);
+        int pos = directoryOffset;
+        for (int i = 0; i < count; i++) {
+            if (pos < 0 || pos + CENTRAL_HEADER_SIZE > end || u4(buffer, pos) != CENTRAL_HEADER_SIGNATURE) {
+                throw new IOException("Corrupt central directory in " + location);
+            }
+            int nameLength = u2(buffer, pos + 28);
+            int extraLength = u2(buffer, pos + 30);
+            int commentLength = u2(buffer, pos + 32);
+            int method = u2(buffer, pos + 10);
+            if (method != STORED && method != DEFLATED) {
+                throw new IOException("Unsupported compression method " + method + " in " + location);
+            }
+            zip.methods[i] = (byte) method;
+            zip.compressedSizes[i] = u4(buffer, pos + 20);
+            zip.sizes[i] = u4(buffer, pos + 24);
+            zip.offsets[i] = u4(buffer, pos + 42);
+            zip.names[i] = name(buffer, pos + CENTRAL_HEADER_SIZE, nameLength);
+            zip.insert(i);
+            pos += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+        }
+        return zip;
+    }
+
+    private static int findEnd(String location, ByteBuffer buffer) throws IOException {
+        int min = Math.max(0, buffer.limit() - END_SIZE - MAX_COMMENT_SIZE);
+        for (int pos = buffer.limit() - END_SIZE; pos >= min; pos--) {
+            if (u4(buffer, pos) == END_SIGNATURE) {
+                return pos;
+            }
+        }
+        throw new IOException(location + " is not a zip archive.");
+    }
+
+    private static String name(ByteBuffer buffer, int pos, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(pos);
+        view.get(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    private static int u2(ByteBuffer buffer, int pos) {
+        return (buffer.get(pos) & 0xFF) | (buffer.get(pos + 1) & 0xFF) << 8;
+    }
+
+    private static int u4(ByteBuffer buffer, int pos) {
+        return u2(buffer, pos) | u2(buffer, pos + 2) << 16;
+    }
+
+    private void insert(int index) {
+        int mask = table.length - 1;
+        int slot = hash(names[index]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    private static int hash(String name) {
+        int h = name.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @param name the entry name
+     * @return the index of the entry or -1 if there is no such entry
+     */
+    int indexOf(String name) {
+        int mask = table.length - 1;
+        int slot = hash(name) & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            if (names[entry - 1].equals(name)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    String getName(int index) {
+        return names[index];
+    }
+
+    boolean isDirectory(int index) {
+        return names[index].endsWith("/");
+    }
+
+    /**
+     * Opens a zip archive nested within this archive. A stored entry is parsed
+     * in place as slice of this archive's buffer, hence it is neither copied nor
+     * extracted to a temporary file. A compressed entry is inflated into memory.
+     *
+     * @param index the index of the entry that contains the nested archive
+     * @return the nested archive
+     * @throws IOException if the entry is not a supported zip archive
+     */
+    ZipArchive openNested(int index) throws IOException {
+        String nestedLocation = location + "!/" + names[index];
+        if (methods[index] != STORED) {
+            return parse(nestedLocation, ByteBuffer.wrap(read(index)));
+        }
+        int pos = dataOffset(index);
+        ByteBuffer view = buffer.duplicate();
+        view.position(pos);
+        view.limit(pos + sizes[index]);
+        return parse(nestedLocation, view.slice());
+    }
+
+    /**
+     * @param index the index of the entry
+     * @return the uncompressed content of the entry in a new array
+     * @throws IOException if the entry is corrupt
+     */
+    byte[] read(int index) throws IOException {
+        byte[] content = new byte[sizes[index]];
+        read(index, content);
+        return content;
+    }
+
+    /**
+     * Returns the uncompressed content of an entry as stream. The stream is backed
+     * by a buffer that belongs to the current thread. Thus it must be consumed before
+     * this method is called again by the same thread.
+     *
+     * @param index the index of the entry
+     * @return the content of the entry
+     * @throws IOException if the entry is corrupt
+     */
+    InputStream open(int index) throws IOException {
+        byte[] content = buffer(OUTPUT_BUFFER, sizes[index]);
+        int length = read(index, content);
+        return new ByteArrayInputStream(content, 0, length);
+    }
+
+    private int dataOffset(int index) throws IOException {
+        int pos = offsets[index];
+        if (pos < 0 || pos + LOCAL_HEADER_SIZE > buffer.limit() || u4(buffer, pos) != LOCAL_HEADER_SIGNATURE) {
+            throw new IOException("Corrupt local header for " + names[index] + " in " + location);
+        }
+        pos += LOCAL_HEADER_SIZE + u2(buffer, pos + 26) + u2(buffer, pos + 28);
+        if (pos + compressedSizes[index] > buffer.limit() || compressedSizes[index] < 0 || sizes[index] < 0) {
+            throw new IOException("Corrupt entry " + names[index] + " in " + location);
+        }
+        return pos;
+    }
+
+    private int read(int index, byte[] content) throws IOException {
+        int pos = dataOffset(index);
+        int compressedSize = compressedSizes[index];
+        int size = sizes[index];
+        ByteBuffer view = buffer.duplicate();
+        view.position(pos);
+        switch (methods[index]) {
+            case STORED:
+                view.get(content, 0, size);
+                return size;
+            case DEFLATED:
+                byte[] input = buffer(INPUT_BUFFER, compressedSize);
+                view.get(input, 0, compressedSize);
+                return inflate(index, input, compressedSize, content);
+            default:
+                throw new IOException("Unsupported compression method " + methods[index]
+                        + " for " + names[index] + " in " + location);
+        }
+    }
+
+    private int inflate(int index, byte[] input, int compressedSize, byte[] content) throws IOException {
+        // The native memory of the inflater is released immediately, a thread local inflater
+        // would keep it until the inflater gets finalized.
+        Inflater inflater = new Inflater(true);
+        int size = sizes[index];
+        int length = 0;
+        try {
+            inflater.setInput(input, 0, compressedSize);
+            while (length < size) {
+                int n = inflater.inflate(content, length, size - length);
+                if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException("Corrupt entry " + names[index] + " in " + location, ex);
+        } finally {
+            inflater.end();
+        }
+        if (length != size) {
+            throw new IOException("Truncated entry " + names[index] + " in " + location);
+        }
+        return length;
+    }
+
+    private static byte[] buffer(ThreadLocal<byte[]> threadLocal, int size) {
+        byte[] buffer = threadLocal.get();
+        if (buffer == null || buffer.length < size) {
+            buffer = new byte[Math.max(size, 16 * 1024)];
+            if (buffer.length <= MAX_RETAINED_BUFFER_SIZE) {
+                threadLocal.set(buffer);
+            }
+        }
+        return buffer;
+    }
+}
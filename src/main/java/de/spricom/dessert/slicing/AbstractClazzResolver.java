@@ -28,7 +28,8 @@ import java.util.Set;
 abstract class AbstractClazzResolver implements ClazzResolver {
     private final Classpath classpath;
 
-    private Set<Clazz> clazzes;
+    private volatile Set<Clazz> clazzes;
+    private Set<Clazz> resolving;
 
     public AbstractClazzResolver(Classpath classpath) {
         this.classpath = classpath;
@@ -37,15 +38,33 @@ abstract class AbstractClazzResolver implements ClazzResolver {
     protected abstract void resolve();
 
     protected final void add(ClassEntry ce) {
-        clazzes.add(classpath.asClazz(ce));
+        resolving.add(classpath.asClazz(ce));
     }
 
+    /**
+     * Resolves the classes on first access. Concurrent callers wait for the
+     * result instead of resolving the same classes again.
+     *
+     * @return the classes
+     */
     public Set<Clazz> getClazzes() {
-        if (clazzes == null) {
-            clazzes = new HashSet<Clazz>();
-            resolve();
+        Set<Clazz> result = clazzes;
+        if (result == null) {
+            synchronized (this) {
+                result = clazzes;
+                if (result == null) {
+                    resolving = new HashSet<Clazz>();
+                    try {
+                        resolve();
+                        result = resolving;
+                    } finally {
+                        resolving = null;
+                    }
+                    clazzes = result;
+                }
+            }
         }
-        return clazzes;
+        return result;
     }
 
     public Classpath getClasspath() {
@@ -102,6 +102,21 @@ public abstract class AbstractDelegateSlice implements Slice {
         return delegate.getDependencies();
     }
 
+    @Override
+    public ConcreteSlice getUsers() {
+        return delegate.getUsers();
+    }
+
+    @Override
+    public ConcreteSlice getTransitiveDependencies() {
+        return delegate.getTransitiveDependencies();
+    }
+
+    @Override
+    public boolean reaches(Slice other) {
+        return delegate.reaches(other);
+    }
+
     @Override
     public boolean uses(Slice other) {
         return delegate.uses(other);
@@ -21,6 +21,7 @@ package de.spricom.dessert.slicing;
  */
 
 import de.spricom.dessert.matching.NamePattern;
+import de.spricom.dessert.resolve.ClassEntry;
 import de.spricom.dessert.resolve.TraversalRoot;
 import de.spricom.dessert.util.Predicate;
 
@@ -31,7 +32,7 @@ import java.util.Set;
  */
 public abstract class AbstractRootSlice extends AbstractSlice {
     private final TraversalRoot traversalRoot;
-    private ConcreteSlice concreteSlice;
+    private volatile ConcreteSlice concreteSlice;
 
     AbstractRootSlice(TraversalRoot traversalRoot) {
         this.traversalRoot = traversalRoot;
@@ -104,8 +105,9 @@ public abstract class AbstractRootSlice extends AbstractSlice {
 
     @Override
     public Slice slice(String pattern) {
-        if (concreteSlice != null) {
-            Slice slice = concreteSlice.slice(pattern);
+        ConcreteSlice cs = concreteSlice;
+        if (cs != null) {
+            Slice slice = cs.slice(pattern);
             if (slice.getClazzes().isEmpty()) {
                 if (isConcrete()) {
                     return Slices.EMPTY_SLICE;
@@ -121,19 +123,42 @@ public abstract class AbstractRootSlice extends AbstractSlice {
 
     @Override
     public Slice slice(final Predicate<Clazz> predicate) {
-        if (concreteSlice != null) {
-            return concreteSlice.slice(predicate);
+        ConcreteSlice cs = concreteSlice;
+        if (cs != null) {
+            return cs.slice(predicate);
         }
         return new DeferredSlice(new DerivedSlice(predicate), resolver(NamePattern.ANY_NAME), isConcrete());
     }
 
     @Override
     public boolean contains(Clazz clazz) {
-        if (concreteSlice != null) {
-            return concreteSlice.contains(clazz);
+        ConcreteSlice cs = concreteSlice;
+        if (cs != null) {
+            return cs.contains(clazz);
         }
-        NamePattern name = NamePattern.of(clazz.getName());
-        return resolver(name).getClazzes().contains(clazz);
+        ClassEntry ce = getClasspath().getClassEntry(clazz.getName());
+        if (ce == null) {
+            return false;
+        }
+        if (ce.getAlternatives() == null) {
+            return isEntryOf(ce, clazz);
+        }
+        for (ClassEntry alternative : ce.getAlternatives()) {
+            if (isEntryOf(alternative, clazz)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isEntryOf(ClassEntry ce, Clazz clazz) {
+        if (!isRootOf(ce)) {
+            return false;
+        }
+        if (clazz.getClasspath() == getClasspath()) {
+            return clazz.getClassEntry() == ce;
+        }
+        return ce.getURI().equals(clazz.getURI());
     }
 
     @Override
@@ -142,10 +167,16 @@ public abstract class AbstractRootSlice extends AbstractSlice {
     }
 
     private ConcreteSlice getConcreteSlice() {
-        if (concreteSlice == null) {
-            concreteSlice = new ConcreteSlice(resolver().getClazzes());
+        ConcreteSlice cs = concreteSlice;
+        if (cs == null) {
+            cs = new ConcreteSlice(resolver().getClazzes());
+            concreteSlice = cs;
         }
-        return concreteSlice;
+        return cs;
+    }
+
+    void invalidate() {
+        concreteSlice = null;
     }
 
     private NamePatternClazzResolver resolver() {
@@ -159,4 +190,10 @@ public abstract class AbstractRootSlice extends AbstractSlice {
     abstract Classpath getClasspath();
 
     abstract boolean isConcrete();
+
+    /**
+     * @param ce an entry of the {@link Classpath} this slice belongs to
+     * @return true if the entry has been found within this root
+     */
+    abstract boolean isRootOf(ClassEntry ce);
 }
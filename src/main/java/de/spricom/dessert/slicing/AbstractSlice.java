@@ -125,11 +125,37 @@ public abstract class AbstractSlice implements Slice {
 
     @Override
     public ConcreteSlice getDependencies() {
-        Set<Clazz> dependencies = new HashSet<Clazz>();
-        for (Clazz clazz : getClazzes()) {
-            dependencies.addAll(clazz.getDependencies().getClazzes());
+        Set<Clazz> clazzes = getClazzes();
+        List<ConcreteSlice> dependencies = new ArrayList<ConcreteSlice>(clazzes.size());
+        for (Clazz clazz : clazzes) {
+            dependencies.add(clazz.getDependencies());
+        }
+        return ConcreteSlice.union(dependencies);
+    }
+
+    @Override
+    public ConcreteSlice getUsers() {
+        Set<Clazz> clazzes = getClazzes();
+        List<ConcreteSlice> users = new ArrayList<ConcreteSlice>(clazzes.size());
+        for (Clazz clazz : clazzes) {
+            users.add(clazz.getUsers());
+        }
+        return ConcreteSlice.union(users);
+    }
+
+    @Override
+    public ConcreteSlice getTransitiveDependencies() {
+        Set<Clazz> clazzes = getClazzes();
+        List<ConcreteSlice> dependencies = new ArrayList<ConcreteSlice>(clazzes.size());
+        for (Clazz clazz : clazzes) {
+            dependencies.add(clazz.getTransitiveDependencies());
         }
-        return new ConcreteSlice(dependencies);
+        return ConcreteSlice.union(dependencies);
+    }
+
+    @Override
+    public boolean reaches(Slice other) {
+        return DependencyClosure.reaches(getClazzes(), other);
     }
 
     @Override
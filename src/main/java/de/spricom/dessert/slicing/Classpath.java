@@ -24,11 +24,14 @@ import de.spricom.dessert.resolve.ClassEntry;
 import de.spricom.dessert.resolve.ClassResolver;
 import de.spricom.dessert.resolve.ClassRoot;
 import de.spricom.dessert.util.ClassUtils;
+import de.spricom.dessert.util.DaemonThreadFactory;
+import de.spricom.dessert.util.SparseBitSet;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -37,6 +40,9 @@ import java.util.logging.Logger;
  * All slices used within a test are created from the Classpath.
  * <p><b>Important:</b>All slices used for assertions must stem from the same Classpath.
  * Otherwise the behaviour is undefined.</p>
+ * <p>A Classpath is thread-safe. Hence a single instance can be shared by tests
+ * running in parallel. For each class name there will be only one {@link Clazz}
+ * instance, even if it's requested by different threads concurrently.</p>
  */
 public final class Classpath extends AbstractRootSlice {
     private static final Logger log = Logger.getLogger(Classpath.class.getName());
@@ -44,7 +50,11 @@ public final class Classpath extends AbstractRootSlice {
 
     private final ClassResolver resolver;
 
-    private final Map<String, Clazz> classes = new HashMap<String, Clazz>();
+    private final ConcurrentMap<String, Clazz> classes = new ConcurrentHashMap<String, Clazz>();
+    private volatile Clazz[] clazzesById = new Clazz[1024];
+    private int clazzCount;
+    private volatile UsersIndex usersIndex;
+    private volatile boolean compact;
 
     /**
      * Creates a Classpath instance by using the default resolver. Thus, the resulting
@@ -67,7 +77,7 @@ public final class Classpath extends AbstractRootSlice {
         resolver.freeze();
     }
 
-    private static ClassResolver getDefaultResolver() {
+    private static synchronized ClassResolver getDefaultResolver() {
         if (defaultResolver == null) {
             try {
                 defaultResolver = ClassResolver.ofClassPathAndBootClassPath();
@@ -78,17 +88,87 @@ public final class Classpath extends AbstractRootSlice {
         return defaultResolver;
     }
 
+    /**
+     * Enables or disables the compact mode. In compact mode, the {@link de.spricom.dessert.classfile.ClassFile} of a class is not
+     * kept once its dependencies, access flags, superclass and interfaces have been determined.
+     * This reduces the memory needed for a big classpath considerably, but each call
+     * of {@link Clazz#getClassFile()} has to analyze the .class file again. Hence
+     * predicates should rely on the properties of the {@link Clazz} only.
+     * The compact mode should be set before any class has been analyzed.
+     *
+     * @param compact true to enable the compact mode
+     */
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Reserves the next free id for a new {@link Clazz}. The Clazz can be looked up by
+     * {@link #clazzById(int)} only after it has been built completely and registered.
+     * The id of a Clazz that lost a race within one of the asClazz methods is never
+     * registered, thus there may be gaps.
+     *
+     * @return the id
+     */
+    synchronized int nextId() {
+        if (clazzCount == clazzesById.length) {
+            clazzesById = Arrays.copyOf(clazzesById, clazzCount * 2);
+        }
+        return clazzCount++;
+    }
+
+    /**
+     * Registers a completely built clazz and its alternatives, unless another clazz
+     * with the same name has been registered before.
+     *
+     * @param classname the name of the class
+     * @param clazz     the new clazz
+     * @return the clazz registered for the classname
+     */
+    private synchronized Clazz register(String classname, Clazz clazz) {
+        Clazz existing = classes.get(classname);
+        if (existing != null) {
+            return existing;
+        }
+        publish(clazz);
+        classes.put(classname, clazz);
+        return clazz;
+    }
+
+    private void publish(Clazz clazz) {
+        assert Thread.holdsLock(this) : "not synchronized";
+        for (Clazz alternative : clazz.getAlternatives()) {
+            clazzesById[alternative.getId()] = alternative;
+        }
+    }
+
+    synchronized int getClazzCount() {
+        return clazzCount;
+    }
+
+    Clazz clazzById(int id) {
+        Clazz[] clazzes = clazzesById;
+        Clazz clazz = id < clazzes.length ? clazzes[id] : null;
+        if (clazz == null) {
+            synchronized (this) {
+                clazz = clazzesById[id];
+            }
+        }
+        return clazz;
+    }
+
     Clazz asClazz(ClassEntry ce) {
         Clazz clazz = classes.get(ce.getClassname());
         if (clazz == null) {
-            clazz = new Clazz(this, ce);
-            classes.put(ce.getClassname(), clazz);
-            return clazz;
-        } else {
-            Clazz alt = clazz.getAlternative(ce);
-            assert alt != null : "alternative for " + ce.getURI() + " is null";
-            return alt;
+            clazz = register(ce.getClassname(), new Clazz(this, ce));
         }
+        Clazz alt = clazz.getAlternative(ce);
+        assert alt != null : "alternative for " + ce.getURI() + " is null";
+        return alt;
     }
 
     /**
@@ -110,7 +190,7 @@ public final class Classpath extends AbstractRootSlice {
             if (clazz == null) {
                 clazz = undefined(classname);
             }
-            classes.put(classname, clazz);
+            clazz = register(classname, clazz);
         }
         return clazz;
     }
@@ -134,23 +214,45 @@ public final class Classpath extends AbstractRootSlice {
         if (clazz == null) {
             clazz = resolveClazz(classname);
             if (clazz != null) {
-                classes.put(classname, clazz);
+                clazz = register(classname, clazz);
             }
         }
         if (clazz != null) {
-            for (Clazz alternative : clazz.getAlternatives()) {
-                if (uri.equals(alternative.getURI())) {
-                    return alternative;
-                }
+            Clazz alternative = findAlternative(clazz, uri);
+            if (alternative != null) {
+                return alternative;
             }
         }
         Clazz newClazz = createClazz(classImpl);
-        if (clazz == null) {
-            classes.put(classname, newClazz);
-        } else {
-            clazz.getAlternatives().add(newClazz);
+        // Linking alternatives must not race with another thread linking the same class.
+        synchronized (this) {
+            clazz = classes.get(classname);
+            if (clazz == null) {
+                publish(newClazz);
+                classes.put(classname, newClazz);
+                return newClazz;
+            }
+            Clazz alternative = findAlternative(clazz, uri);
+            if (alternative != null) {
+                return alternative;
+            }
+            publish(newClazz);
+            if (clazz.isUnknown()) {
+                classes.put(classname, newClazz);
+            } else {
+                clazz.addAlternative(newClazz);
+            }
+            return newClazz;
+        }
+    }
+
+    private Clazz findAlternative(Clazz clazz, URI uri) {
+        for (Clazz alternative : clazz.getAlternatives()) {
+            if (uri.equals(alternative.getURI())) {
+                return alternative;
+            }
         }
-        return newClazz;
+        return null;
     }
 
     private Clazz resolveClazz(String classname) {
@@ -185,6 +287,34 @@ public final class Classpath extends AbstractRootSlice {
         return new Clazz(this, classname);
     }
 
+    /**
+     * Returns all classes that depend on <i>clazz</i>. The first call builds an
+     * inverted dependency index for the whole Classpath. Thus, each subsequent call
+     * takes time proportional to the number of users.
+     *
+     * @see Slice#getUsers()
+     *
+     * @param clazz the dependency
+     * @return the users
+     */
+    ConcreteSlice usersOf(Clazz clazz) {
+        return new ConcreteSlice(this, getUsersIndex().getUsers(clazz.getId()));
+    }
+
+    private UsersIndex getUsersIndex() {
+        UsersIndex index = usersIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = usersIndex;
+                if (index == null) {
+                    index = new UsersIndex(this);
+                    usersIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
     /**
      * Returns a slice of all duplicate .class files detected by the underlying {@link ClassResolver}.
      * Hence for each entry in this slice there are at least two .class files with the same classname but
@@ -303,6 +433,144 @@ public final class Classpath extends AbstractRootSlice {
         return new ConcreteSlice(clazzes);
     }
 
+    /**
+     * Same as {@link #preload(Slice, int)} using one thread per available processor.
+     *
+     * @param slice the classes to analyze
+     */
+    public void preload(Slice slice) {
+        preload(slice, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Determines the dependencies of all classes within <i>slice</i> in parallel. Without
+     * preloading, the dependencies of each class are determined sequentially on first access,
+     * thus the first assertion on a big slice has to analyze thousands of .class files one by one.
+     * After preloading, the assertions on the slice don't have to read any .class file.
+     *
+     * @param slice   the classes to analyze
+     * @param threads the number of threads to use
+     */
+    public void preload(Slice slice, int threads) {
+        final List<Clazz> clazzes = new ArrayList<Clazz>(slice.getClazzes());
+        if (threads <= 1 || clazzes.size() <= 1) {
+            for (Clazz clazz : clazzes) {
+                clazz.getDependencies();
+            }
+            return;
+        }
+        int chunks = Math.min(threads * 4, clazzes.size());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, chunks), new DaemonThreadFactory("dessert-preload-"));
+        try {
+            List<Future<?>> results = new ArrayList<Future<?>>(chunks);
+            for (int i = 0; i < chunks; i++) {
+                final int from = i * clazzes.size() / chunks;
+                final int to = (i + 1) * clazzes.size() / chunks;
+                results.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (Clazz clazz : clazzes.subList(from, to)) {
+                            clazz.getDependencies();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                await(result);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void await(Future<?> result) {
+        try {
+            result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResolveException("Interrupted while preloading dependencies", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ResolveException("Unable to preload dependencies", cause);
+        }
+    }
+
+    /**
+     * Refreshes the classes directories of the underlying {@link ClassResolver} after they have been
+     * changed, i.e. by a compiler. This is useful for a long-lived JVM that runs the dessert tests
+     * after each compile. Only the classes that have been modified, added or removed are analyzed again,
+     * all other classes keep their cached properties. Slices created before the refresh won't be updated,
+     * hence they have to be created again.
+     * <p>A refresh must not run concurrently with any other access to this Classpath.</p>
+     *
+     * @return the names of all classes that have been modified, added or removed
+     * @see ClassResolver#refresh()
+     */
+    public synchronized Set<String> refresh() {
+        Set<String> changed;
+        try {
+            changed = resolver.refresh();
+        } catch (IOException ex) {
+            throw new ResolveException("Unable to refresh " + resolver, ex);
+        }
+        SparseBitSet replaced = new SparseBitSet();
+        for (String classname : changed) {
+            Clazz clazz = classes.get(classname);
+            if (clazz == null) {
+                continue;
+            }
+            if (hasSameEntries(clazz, resolver.getClassEntry(classname))) {
+                for (Clazz alternative : clazz.getAlternatives()) {
+                    alternative.invalidate();
+                }
+            } else {
+                classes.remove(classname);
+                for (Clazz alternative : clazz.getAlternatives()) {
+                    replaced.set(alternative.getId());
+                }
+            }
+        }
+        if (!changed.isEmpty()) {
+            for (int id = 0; id < clazzCount; id++) {
+                Clazz clazz = clazzesById[id];
+                if (clazz != null) {
+                    clazz.invalidateReferencesTo(replaced);
+                    clazz.setMemoizedTransitiveDependencies(null);
+                }
+            }
+            for (int id = replaced.nextSetBit(0); id >= 0; id = replaced.nextSetBit(id + 1)) {
+                clazzesById[id].retire();
+            }
+        }
+        usersIndex = null;
+        invalidate();
+        return changed;
+    }
+
+    private static boolean hasSameEntries(Clazz clazz, ClassEntry ce) {
+        if (ce == null) {
+            return false;
+        }
+        List<ClassEntry> entries = ce.getAlternatives() == null
+                ? Collections.singletonList(ce)
+                : ce.getAlternatives();
+        List<Clazz> alternatives = clazz.getAlternatives();
+        if (alternatives.size() != entries.size()) {
+            return false;
+        }
+        for (Clazz alternative : alternatives) {
+            if (!entries.contains(alternative.getClassEntry())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     Classpath getClasspath() {
         return this;
@@ -312,4 +580,13 @@ public final class Classpath extends AbstractRootSlice {
     boolean isConcrete() {
         return false;
     }
+
+    @Override
+    boolean isRootOf(ClassEntry ce) {
+        return true;
+    }
+
+    ClassEntry getClassEntry(String classname) {
+        return resolver.getClassEntry(classname);
+    }
 }
@@ -24,35 +24,50 @@ import de.spricom.dessert.classfile.ClassFile;
 import de.spricom.dessert.resolve.ClassEntry;
 import de.spricom.dessert.util.ClassUtils;
 import de.spricom.dessert.util.Predicate;
+import de.spricom.dessert.util.SparseBitSet;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Logger;
 
 /**
  * A special {@link Slice} that represents a single .class file.
+ *
+ * <p>A Clazz is thread-safe. Its properties are determined lazily. If two threads
+ * request the same property concurrently, it may be determined twice, but both threads
+ * will get an equal result.</p>
  */
 public final class Clazz extends AbstractSlice implements Comparable<Clazz>, Concrete {
     private static final Logger log = Logger.getLogger(Clazz.class.getName());
     public static final Clazz UNDEFINED = new Clazz();
 
     private final Classpath classpath;
+    private final int id;
     private final String className;
-    private final ClassFile classFile;
     private final ClassEntry classEntry;
-    private Class<?> classImpl;
-    private URI uri;
-
-    private Clazz superclass;
-    private List<Clazz> implementedInterfaces;
-    private ConcreteSlice dependencies;
-    private List<Clazz> alternatives;
+    private volatile ClassFile classFile;
+    private volatile Class<?> classImpl;
+    private volatile URI uri;
+
+    /**
+     * The access flags are written last by {@link #analyze()}, hence -1 means not analyzed yet.
+     */
+    private volatile int accessFlags = -1;
+    private volatile String superclassName;
+    private volatile String[] interfaceNames;
+    private volatile Clazz superclass;
+    private volatile List<Clazz> implementedInterfaces;
+    private volatile ConcreteSlice dependencies;
+    private volatile List<Clazz> alternatives;
+    private volatile ConcreteSlice transitiveDependencies;
 
     private Clazz() {
         classpath = null;
+        id = -1;
         className = "undefined";
         classFile = null;
         classEntry = null;
@@ -66,9 +81,9 @@ public final class Clazz extends AbstractSlice implements Comparable<Clazz>, Con
         assert classpath != null : "context == null";
         assert classEntry != null : "classEntry == null";
         this.classpath = classpath;
-        this.classFile = classEntry.getClassfile();
-        this.className = classFile.getThisClass();
+        this.className = classEntry.getClassname();
         this.classEntry = classEntry;
+        this.id = classpath.nextId();
         if (classEntry.getAlternatives() != null) {
             for (ClassEntry alternative : classEntry.getAlternatives()) {
                 if (classEntry != alternative) {
@@ -83,14 +98,9 @@ public final class Clazz extends AbstractSlice implements Comparable<Clazz>, Con
         assert classEntry != null : "classEntry == null";
         this.classpath = alternative.classpath;
         this.classEntry = classEntry;
-        this.classFile = classEntry.getClassfile();
-        this.className = classFile.getThisClass();
-        if (alternative.alternatives == null) {
-            alternative.alternatives = new LinkedList<Clazz>();
-            alternative.alternatives.add(alternative);
-        }
-        this.alternatives = alternative.alternatives;
-        this.alternatives.add(this);
+        this.className = classEntry.getClassname();
+        this.id = classpath.nextId();
+        alternative.addAlternative(this);
     }
 
     Clazz(Classpath classpath, Class<?> classImpl) throws IOException {
@@ -101,6 +111,7 @@ public final class Clazz extends AbstractSlice implements Comparable<Clazz>, Con
         this.classEntry = null;
         this.classFile = new ClassFile(classImpl);
         this.className = classFile.getThisClass();
+        this.id = classpath.nextId();
     }
 
     Clazz(Classpath classpath, String className) {
@@ -110,6 +121,7 @@ public final class Clazz extends AbstractSlice implements Comparable<Clazz>, Con
         this.classEntry = null;
         this.classFile = null;
         this.className = className;
+        this.id = classpath.nextId();
         superclass = UNDEFINED;
         implementedInterfaces = Collections.emptyList();
         dependencies = ConcreteSlice.EMPTY_SLICE;
@@ -155,6 +167,73 @@ public final class Clazz extends AbstractSlice implements Comparable<Clazz>, Con
         return Collections.singleton(this);
     }
 
+    Classpath getClasspath() {
+        return classpath;
+    }
+
+    ClassEntry getClassEntry() {
+        return classEntry;
+    }
+
+    /**
+     * Drops all cached properties that are derived from the .class file,
+     * thus they will be determined again on next access.
+     */
+    void invalidate() {
+        if (isUnknown()) {
+            return;
+        }
+        if (classEntry != null) {
+            classFile = null;
+        }
+        accessFlags = -1;
+        superclass = null;
+        implementedInterfaces = null;
+        dependencies = null;
+    }
+
+    /**
+     * Marks this clazz as replaced by a new one. Thus, it won't show up as user of any other class.
+     */
+    void retire() {
+        dependencies = ConcreteSlice.EMPTY_SLICE;
+    }
+
+    /**
+     * Invalidates this clazz if one of its cached properties refers to a clazz
+     * that has been replaced.
+     *
+     * @param ids the ids of the replaced classes
+     */
+    void invalidateReferencesTo(SparseBitSet ids) {
+        if (isUnknown()) {
+            return;
+        }
+        ConcreteSlice deps = dependencies;
+        Clazz sc = superclass;
+        List<Clazz> interfaces = implementedInterfaces;
+        boolean refers = deps != null && deps.getBits().intersects(ids)
+                || sc != null && ids.get(sc.id);
+        if (!refers && interfaces != null) {
+            for (Clazz in : interfaces) {
+                refers |= ids.get(in.id);
+            }
+        }
+        if (refers) {
+            invalidate();
+        }
+    }
+
+    /**
+     * The id is unique within the {@link Classpath} this clazz belongs to.
+     * The ids of a Classpath are dense, thus they can be used as index for a bit-set.
+     *
+     * @return the id or -1 for {@link #UNDEFINED}
+     */
+    int getId() {
+        return id;
+    }
+
     @Override
     public int hashCode() {
         return className.hashCode();
@@ -186,7 +265,7 @@ public final class Clazz extends AbstractSlice implements Comparable<Clazz>, Con
     }
 
     public boolean isUnknown() {
-        return classFile == null;
+        return classEntry == null && classFile == null;
     }
 
     public Class<?> getClassImpl() {
@@ -204,47 +283,143 @@ public final class Clazz extends AbstractSlice implements Comparable<Clazz>, Con
         return classImpl;
     }
 
+    /**
+     * @return the access flags of the class, 0 if the class is unknown
+     * @see ClassFile#getAccessFlags()
+     */
+    public int getAccessFlags() {
+        if (accessFlags == -1) {
+            if (isUnknown()) {
+                return 0;
+            }
+            analyze();
+        }
+        return accessFlags;
+    }
+
+    /**
+     * @return the superclass or null for java.lang.Object, interfaces and module-info
+     */
     public Clazz getSuperclass() {
-        if (superclass == null && classFile != null) {
-            superclass = classpath.asClazz(classFile.getSuperClass());
+        Clazz sc = superclass;
+        if (sc == null && !isUnknown()) {
+            if (accessFlags == -1) {
+                analyze();
+            }
+            String name = superclassName;
+            if (name != null) {
+                sc = classpath.asClazz(name);
+                superclass = sc;
+            }
         }
-        return superclass;
+        return sc;
     }
 
     public List<Clazz> getImplementedInterfaces() {
-        if (implementedInterfaces == null && classFile != null) {
-            implementedInterfaces = new ArrayList<Clazz>(classFile.getInterfaces().length);
-            for (String in : classEntry.getClassfile().getInterfaces()) {
-                implementedInterfaces.add(classpath.asClazz(in));
+        List<Clazz> interfaces = implementedInterfaces;
+        if (interfaces == null && !isUnknown()) {
+            if (accessFlags == -1) {
+                analyze();
             }
+            String[] names = interfaceNames;
+            interfaces = new ArrayList<Clazz>(names.length);
+            for (String in : names) {
+                interfaces.add(classpath.asClazz(in));
+            }
+            implementedInterfaces = interfaces;
         }
-        return implementedInterfaces;
+        return interfaces;
+    }
+
+    /**
+     * Reads the names of the superclass and the interfaces and the access flags from the
+     * {@link ClassFile}. The corresponding clazzes are resolved on demand only.
+     * In compact mode the ClassFile is released afterwards.
+     */
+    private void analyze() {
+        ClassFile cf = getClassFile();
+        interfaceNames = cf.getInterfaces();
+        superclassName = cf.getSuperClass();
+        accessFlags = cf.getAccessFlags();
     }
 
     public ConcreteSlice getDependencies() {
-        if (dependencies == null && classFile != null) {
-            Set<Clazz> deps = new HashSet<Clazz>(classFile.getDependentClasses().size());
-            for (String cn : classFile.getDependentClasses()) {
-                deps.add(classpath.asClazz(cn));
+        if (dependencies == null && !isUnknown()) {
+            Set<String> dependentClasses = classEntry != null
+                    ? classEntry.getDependentClasses()
+                    : classFile.getDependentClasses();
+            int[] ids = new int[dependentClasses.size()];
+            int i = 0;
+            for (String cn : dependentClasses) {
+                ids[i++] = classpath.asClazz(cn).getId();
+            }
+            dependencies = new ConcreteSlice(classpath, SparseBitSet.of(ids));
+            if (classEntry != null && classpath.isCompact()) {
+                classEntry.release();
             }
-            dependencies = new ConcreteSlice(deps);
         }
         return dependencies;
     }
 
+    @Override
+    public ConcreteSlice getTransitiveDependencies() {
+        if (classpath == null) {
+            return ConcreteSlice.EMPTY_SLICE;
+        }
+        return DependencyClosure.of(this);
+    }
+
+    ConcreteSlice getMemoizedTransitiveDependencies() {
+        return transitiveDependencies;
+    }
+
+    void setMemoizedTransitiveDependencies(ConcreteSlice transitiveDependencies) {
+        this.transitiveDependencies = transitiveDependencies;
+    }
+
+    @Override
+    public ConcreteSlice getUsers() {
+        if (classpath == null) {
+            return ConcreteSlice.EMPTY_SLICE;
+        }
+        return classpath.usersOf(this);
+    }
+
+    /**
+     * Links another clazz with the same name but a different URI to the alternatives of this
+     * clazz. All alternatives share the same list. The list is copied on write, thus
+     * it can be iterated while an alternative is added concurrently. Adding alternatives
+     * to a published clazz must be synchronized by the {@link Classpath}.
+     *
+     * @param alt the alternative
+     */
+    void addAlternative(Clazz alt) {
+        assert alt.alternatives == null : "alt.alternatives != null";
+        List<Clazz> list = alternatives;
+        if (list == null) {
+            list = new CopyOnWriteArrayList<Clazz>();
+            list.add(this);
+        }
+        list.add(alt);
+        alt.alternatives = list;
+        alternatives = list;
+    }
+
     public List<Clazz> getAlternatives() {
-        if (alternatives == null) {
+        List<Clazz> list = alternatives;
+        if (list == null) {
             return Collections.singletonList(this);
         }
-        return alternatives;
+        return list;
     }
 
     Clazz getAlternative(ClassEntry ce) {
         if (matches(ce)) {
             return this;
         }
-        if (alternatives != null) {
-            for (Clazz alt : alternatives) {
+        List<Clazz> list = alternatives;
+        if (list != null) {
+            for (Clazz alt : list) {
                 if (alt.matches(ce)) {
                     return alt;
                 }
@@ -277,7 +452,22 @@ public final class Clazz extends AbstractSlice implements Comparable<Clazz>, Con
         return className.substring(dotIndex + 1);
     }
 
+    /**
+     * Returns the {@link ClassFile}. In compact mode, the ClassFile is not cached,
+     * hence each call has to analyze the .class file again.
+     *
+     * @return the ClassFile or null, if the class is unknown
+     * @see Classpath#setCompact(boolean)
+     */
     public ClassFile getClassFile() {
+        if (classFile == null && classEntry != null) {
+            if (classpath.isCompact()) {
+                ClassFile cf = classEntry.getClassfile();
+                classEntry.release();
+                return cf;
+            }
+            classFile = classEntry.getClassfile();
+        }
         return classFile;
     }
 
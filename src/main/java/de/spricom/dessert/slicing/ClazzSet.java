@@ -0,0 +1,91 @@
+package de.spricom.dessert.slicing;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.util.SparseBitSet;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable view on the classes of a {@link ConcreteSlice} given by their ids.
+ */
+final class ClazzSet extends AbstractSet<Clazz> {
+    private final Classpath classpath;
+    private final SparseBitSet bits;
+    private final int size;
+
+    ClazzSet(Classpath classpath, SparseBitSet bits) {
+        this.classpath = classpath;
+        this.bits = bits;
+        this.size = bits.cardinality();
+    }
+
+    Classpath getClasspath() {
+        return classpath;
+    }
+
+    SparseBitSet getBits() {
+        return bits;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Clazz)) {
+            return false;
+        }
+        Clazz clazz = (Clazz) o;
+        return clazz.getClasspath() == classpath && bits.get(clazz.getId());
+    }
+
+    @Override
+    public Iterator<Clazz> iterator() {
+        return new Iterator<Clazz>() {
+            private int next = bits.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Clazz next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                Clazz clazz = classpath.clazzById(next);
+                next = bits.nextSetBit(next + 1);
+                return clazz;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
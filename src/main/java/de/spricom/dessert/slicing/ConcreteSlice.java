@@ -21,53 +21,194 @@ package de.spricom.dessert.slicing;
  */
 
 import de.spricom.dessert.util.Predicate;
+import de.spricom.dessert.util.SparseBitSet;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
+import java.util.*;
 
 /**
  * A concrete slice is a concrete collection of classes.
  * Hence it contains a set of {@link Clazz}.
  * The sum or difference on concrete slices
  * produce a concrete slice again.
+ * <p>The classes are stored as bit-set of their {@link Clazz} ids. Thus sum, difference,
+ * intersection and {@link #contains(Clazz)} are bit operations, as long as all slices
+ * involved are concrete slices or classes of the same {@link Classpath}.</p>
  */
 public class ConcreteSlice extends AbstractSlice implements Concrete {
-    public static final ConcreteSlice EMPTY_SLICE = new ConcreteSlice(Collections.<Clazz>emptySet());
+    public static final ConcreteSlice EMPTY_SLICE = new ConcreteSlice(null, SparseBitSet.EMPTY);
 
-    private final Set<Clazz> entries;
+    private final Classpath classpath;
+    private final SparseBitSet bits;
+    private final Set<Clazz> clazzes;
 
     protected ConcreteSlice(Set<Clazz> entries) {
-        this.entries = entries;
+        this(classpathOf(entries), bitsOf(entries));
     }
 
-    @Override
-    public ConcreteSlice slice(Predicate<Clazz> predicate) {
-        Set<Clazz> filtered = new HashSet<Clazz>();
+    ConcreteSlice(Classpath classpath, SparseBitSet bits) {
+        assert classpath != null || bits.isEmpty() : "classpath == null";
+        this.classpath = classpath;
+        this.bits = bits;
+        this.clazzes = new ClazzSet(classpath, bits);
+    }
+
+    private static Classpath classpathOf(Set<Clazz> entries) {
+        Classpath classpath = null;
         for (Clazz entry : entries) {
-            if (predicate.test(entry)) {
-                filtered.add(entry);
+            if (entry.getClasspath() == null) {
+                throw new IllegalArgumentException(entry + " cannot be part of a slice.");
+            }
+            if (classpath == null) {
+                classpath = entry.getClasspath();
+            } else if (classpath != entry.getClasspath()) {
+                throw new IllegalArgumentException("All classes of a slice must stem from the same Classpath.");
             }
         }
-        if (filtered.isEmpty()) {
+        return classpath;
+    }
+
+    private static SparseBitSet bitsOf(Set<Clazz> entries) {
+        if (entries.isEmpty()) {
+            return SparseBitSet.EMPTY;
+        }
+        int[] ids = new int[entries.size()];
+        int i = 0;
+        for (Clazz entry : entries) {
+            ids[i++] = entry.getId();
+        }
+        return SparseBitSet.of(ids);
+    }
+
+    private static ConcreteSlice create(Classpath classpath, SparseBitSet bits) {
+        if (bits.isEmpty()) {
             return EMPTY_SLICE;
         }
-        return new ConcreteSlice(filtered);
+        return new ConcreteSlice(classpath, bits);
+    }
+
+    /**
+     * Returns the union of some concrete slices. The slices are united bit-wise if they
+     * stem from the same {@link Classpath}.
+     *
+     * @param slices the slices to unite
+     * @return the union
+     */
+    static ConcreteSlice union(Collection<ConcreteSlice> slices) {
+        Classpath classpath = null;
+        List<SparseBitSet> list = new ArrayList<SparseBitSet>(slices.size());
+        for (ConcreteSlice slice : slices) {
+            if (!slice.bits.isEmpty()) {
+                if (classpath == null) {
+                    classpath = slice.classpath;
+                } else if (classpath != slice.classpath) {
+                    throw new IllegalArgumentException("All classes of a slice must stem from the same Classpath.");
+                }
+                list.add(slice.bits);
+            }
+        }
+        return create(classpath, SparseBitSet.union(list));
+    }
+
+    SparseBitSet getBits() {
+        return bits;
+    }
+
+    @Override
+    public ConcreteSlice slice(Predicate<Clazz> predicate) {
+        SparseBitSet filtered = new SparseBitSet();
+        for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+            if (predicate.test(classpath.clazzById(id))) {
+                filtered.set(id);
+            }
+        }
+        return create(classpath, filtered);
+    }
+
+    @Override
+    public Slice plus(Iterable<? extends Slice> slices) {
+        List<ConcreteSlice> list = asConcreteSlices(slices);
+        if (list == null) {
+            return super.plus(slices);
+        }
+        list.add(this);
+        return union(list);
+    }
+
+    @Override
+    public Slice plus(Slice... slices) {
+        return plus(Arrays.asList(slices));
+    }
+
+    @Override
+    public Slice minus(Iterable<? extends Slice> slices) {
+        List<ConcreteSlice> list = asConcreteSlices(slices);
+        if (list == null) {
+            return super.minus(slices);
+        }
+        SparseBitSet difference = bits;
+        for (ConcreteSlice slice : list) {
+            difference = difference.andNot(slice.bits);
+        }
+        return create(classpath, difference);
+    }
+
+    @Override
+    public Slice slice(Iterable<? extends Slice> slices) {
+        List<ConcreteSlice> list = asConcreteSlices(slices);
+        if (list == null) {
+            return super.slice(slices);
+        }
+        if (list.isEmpty()) {
+            return this;
+        }
+        return create(classpath, bits.and(union(list).bits));
+    }
+
+    /**
+     * Converts the <i>slices</i> to concrete slices of the same {@link Classpath}.
+     *
+     * @param slices the slices to convert
+     * @return the converted slices or null if they cannot be combined bit-wise
+     */
+    private List<ConcreteSlice> asConcreteSlices(Iterable<? extends Slice> slices) {
+        Classpath cp = bits.isEmpty() ? null : classpath;
+        List<ConcreteSlice> list = new ArrayList<ConcreteSlice>();
+        for (Slice slice : slices) {
+            ConcreteSlice cs;
+            if (slice instanceof ConcreteSlice) {
+                cs = (ConcreteSlice) slice;
+            } else if (slice instanceof Clazz && ((Clazz) slice).getClasspath() != null) {
+                Clazz clazz = (Clazz) slice;
+                SparseBitSet single = new SparseBitSet();
+                single.set(clazz.getId());
+                cs = new ConcreteSlice(clazz.getClasspath(), single);
+            } else {
+                return null;
+            }
+            if (!cs.bits.isEmpty()) {
+                if (cp == null) {
+                    cp = cs.classpath;
+                } else if (cp != cs.classpath) {
+                    return null;
+                }
+            }
+            list.add(cs);
+        }
+        return list;
     }
 
     @Override
     public boolean contains(Clazz entry) {
-        return entries.contains(entry);
+        return entry.getClasspath() == classpath && bits.get(entry.getId());
     }
 
     public Set<Clazz> getClazzes() {
-        return entries;
+        return clazzes;
     }
 
     public String toString() {
         StringBuilder sb = new StringBuilder("slice of [");
-        Iterator<Clazz> iter = entries.iterator();
+        Iterator<Clazz> iter = getClazzes().iterator();
         boolean first = true;
         while (iter.hasNext() && sb.length() < 60) {
             Clazz entry = iter.next();
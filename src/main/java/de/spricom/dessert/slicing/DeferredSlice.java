@@ -29,7 +29,7 @@ class DeferredSlice extends AbstractSlice {
     private final Slice derivedSlice;
     private final NamePatternClazzResolver resolver;
     private final boolean resolvesConcrete;
-    private ConcreteSlice concreteSlice;
+    private volatile ConcreteSlice concreteSlice;
 
     DeferredSlice(Slice derivedSlice, NamePatternClazzResolver resolver, boolean resolvesConcrete) {
         this.derivedSlice = derivedSlice;
@@ -37,10 +37,21 @@ class DeferredSlice extends AbstractSlice {
         this.resolvesConcrete = resolvesConcrete;
     }
 
+    /**
+     * @return the pattern each class of this slice must match, {@link NamePattern#ANY_NAME} if unknown
+     */
+    NamePattern getNamePattern() {
+        if (derivedSlice instanceof DerivedSlice) {
+            return ((DerivedSlice) derivedSlice).getNamePattern();
+        }
+        return NamePattern.ANY_NAME;
+    }
+
     @Override
     public Slice slice(String pattern) {
-        if (isConcrete()) {
-            return concreteSlice.slice(pattern);
+        ConcreteSlice cs = concreteSlice;
+        if (isConcrete(cs)) {
+            return cs.slice(pattern);
         }
         return new DeferredSlice(derivedSlice.slice(pattern),
                 resolver.filtered(NamePattern.of(pattern)),
@@ -49,16 +60,18 @@ class DeferredSlice extends AbstractSlice {
 
     @Override
     public Slice slice(final Predicate<Clazz> predicate) {
-        if (isConcrete()) {
-            return concreteSlice.slice(predicate);
+        ConcreteSlice cs = concreteSlice;
+        if (isConcrete(cs)) {
+            return cs.slice(predicate);
         }
         return new DeferredSlice(derivedSlice.slice(predicate), resolver, resolvesConcrete);
     }
 
     @Override
     public boolean contains(Clazz clazz) {
-        if (isConcrete()) {
-            return concreteSlice.contains(clazz);
+        ConcreteSlice cs = concreteSlice;
+        if (isConcrete(cs)) {
+            return cs.contains(clazz);
         }
         if (!derivedSlice.contains(clazz)) {
             return false;
@@ -66,31 +79,33 @@ class DeferredSlice extends AbstractSlice {
         if (getClazzes().contains(clazz)) {
             return true;
         }
-        return isConcrete() ? false : true;
+        return isConcrete(concreteSlice) ? false : true;
     }
 
-    private boolean isConcrete() {
-        return concreteSlice != null
-                && (!concreteSlice.getClazzes().isEmpty() || resolvesConcrete);
+    private boolean isConcrete(ConcreteSlice cs) {
+        return cs != null
+                && (!cs.getClazzes().isEmpty() || resolvesConcrete);
     }
 
     @Override
     public Set<Clazz> getClazzes() {
-        if (concreteSlice == null) {
-            ConcreteSlice cs = new ConcreteSlice(resolver.getClazzes());
-            concreteSlice = cs.slice(new Predicate<Clazz>() {
+        ConcreteSlice cs = concreteSlice;
+        if (cs == null) {
+            cs = new ConcreteSlice(resolver.getClazzes()).slice(new Predicate<Clazz>() {
                 @Override
                 public boolean test(Clazz clazz) {
                     return derivedSlice.contains(clazz);
                 }
             });
+            concreteSlice = cs;
         }
-        return concreteSlice.getClazzes();
+        return cs.getClazzes();
     }
 
     public String toString() {
-        if (concreteSlice != null) {
-            return concreteSlice.toString();
+        ConcreteSlice cs = concreteSlice;
+        if (cs != null) {
+            return cs.toString();
         }
         return derivedSlice.toString();
     }
@@ -0,0 +1,199 @@
+package de.spricom.dessert.slicing;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.util.SparseBitSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Determines the transitive dependencies of a {@link Clazz} by Tarjan's algorithm for
+ * strongly connected components. All classes of a strongly connected component share the
+ * same transitive dependencies. Hence, these are determined once per component and memoized
+ * within each {@link Clazz} visited. The components are completed in reverse topological order,
+ * thus the transitive dependencies of a component are the union of the direct dependencies of
+ * its classes and the memoized transitive dependencies of all components it depends on.
+ *
+ * <p>The graph is traversed by the {@link Clazz} ids, the recursion is replaced by an explicit
+ * stack, thus long dependency chains won't cause a {@link StackOverflowError}.</p>
+ */
+final class DependencyClosure {
+    private final Classpath classpath;
+
+    private int[] index = new int[256];
+    private int[] lowlink = new int[256];
+    private final BitSet onStack = new BitSet();
+    private int counter;
+
+    private int[] stack = new int[64];
+    private int stackSize;
+
+    private int[] path = new int[64];
+    private int[] next = new int[64];
+    private int depth;
+
+    private DependencyClosure(Classpath classpath) {
+        this.classpath = classpath;
+    }
+
+    static ConcreteSlice of(Clazz clazz) {
+        ConcreteSlice closure = clazz.getMemoizedTransitiveDependencies();
+        if (closure == null) {
+            new DependencyClosure(clazz.getClasspath()).visit(clazz.getId());
+            closure = clazz.getMemoizedTransitiveDependencies();
+        }
+        return closure;
+    }
+
+    private void visit(int root) {
+        enter(root);
+        while (depth > 0) {
+            int id = path[depth - 1];
+            SparseBitSet deps = classpath.clazzById(id).getDependencies().getBits();
+            int dep = deps.nextSetBit(next[depth - 1]);
+            if (dep >= 0) {
+                next[depth - 1] = dep + 1;
+                if (classpath.clazzById(dep).getMemoizedTransitiveDependencies() != null) {
+                    continue;
+                }
+                if (dep >= index.length || index[dep] == 0) {
+                    enter(dep);
+                } else if (onStack.get(dep)) {
+                    lowlink[id] = Math.min(lowlink[id], index[dep]);
+                }
+            } else {
+                depth--;
+                if (lowlink[id] == index[id]) {
+                    complete(id);
+                }
+                if (depth > 0) {
+                    int parent = path[depth - 1];
+                    lowlink[parent] = Math.min(lowlink[parent], lowlink[id]);
+                }
+            }
+        }
+    }
+
+    private void enter(int id) {
+        if (id >= index.length) {
+            int capacity = Math.max(index.length * 2, id + 1);
+            index = Arrays.copyOf(index, capacity);
+            lowlink = Arrays.copyOf(lowlink, capacity);
+        }
+        index[id] = ++counter;
+        lowlink[id] = counter;
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = id;
+        onStack.set(id);
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+            next = Arrays.copyOf(next, depth * 2);
+        }
+        path[depth] = id;
+        next[depth] = 0;
+        depth++;
+    }
+
+    private void complete(int root) {
+        int first = stackSize;
+        do {
+            first--;
+            onStack.clear(stack[first]);
+        } while (stack[first] != root);
+        List<SparseBitSet> parts = new ArrayList<SparseBitSet>();
+        for (int i = first; i < stackSize; i++) {
+            SparseBitSet deps = classpath.clazzById(stack[i]).getDependencies().getBits();
+            parts.add(deps);
+            for (int dep = deps.nextSetBit(0); dep >= 0; dep = deps.nextSetBit(dep + 1)) {
+                ConcreteSlice closure = classpath.clazzById(dep).getMemoizedTransitiveDependencies();
+                if (closure != null) {
+                    parts.add(closure.getBits());
+                }
+            }
+        }
+        ConcreteSlice closure = new ConcreteSlice(classpath, SparseBitSet.union(parts));
+        for (int i = first; i < stackSize; i++) {
+            classpath.clazzById(stack[i]).setMemoizedTransitiveDependencies(closure);
+        }
+        stackSize = first;
+    }
+
+    /**
+     * Does a breadth-first search on the dependencies of <i>clazzes</i> that stops as soon
+     * as some class of <i>target</i> has been reached. Each id refers to the classpath of its class,
+     * thus classes of different classpaths are searched separately, one classpath after the other.
+     *
+     * @param clazzes the classes to start with
+     * @param target  the classes to look for
+     * @return true if some class of <i>target</i> can be reached
+     */
+    static boolean reaches(Iterable<Clazz> clazzes, Slice target) {
+        BitSet visited = new BitSet();
+        int[] queue = new int[64];
+        int head = 0;
+        int tail = 0;
+        Classpath classpath = null;
+        List<Clazz> others = null;
+        for (Clazz clazz : clazzes) {
+            if (clazz.getClasspath() == null) {
+                continue;
+            }
+            if (classpath == null) {
+                classpath = clazz.getClasspath();
+            } else if (clazz.getClasspath() != classpath) {
+                if (others == null) {
+                    others = new ArrayList<Clazz>();
+                }
+                others.add(clazz);
+                continue;
+            }
+            if (tail == queue.length) {
+                queue = Arrays.copyOf(queue, tail * 2);
+            }
+            queue[tail++] = clazz.getId();
+        }
+        while (head < tail) {
+            SparseBitSet deps = classpath.clazzById(queue[head++]).getDependencies().getBits();
+            for (int dep = deps.nextSetBit(0); dep >= 0; dep = deps.nextSetBit(dep + 1)) {
+                if (visited.get(dep)) {
+                    continue;
+                }
+                visited.set(dep);
+                Clazz dependency = classpath.clazzById(dep);
+                for (Clazz alternative : dependency.getAlternatives()) {
+                    if (target.contains(alternative)) {
+                        return true;
+                    }
+                }
+                if (tail == queue.length) {
+                    queue = Arrays.copyOf(queue, tail * 2);
+                }
+                queue[tail++] = dep;
+            }
+        }
+        return others != null && reaches(others, target);
+    }
+}
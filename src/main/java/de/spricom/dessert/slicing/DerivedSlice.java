@@ -24,13 +24,14 @@ import de.spricom.dessert.matching.NamePattern;
 import de.spricom.dessert.util.Predicate;
 import de.spricom.dessert.util.Predicates;
 
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 final class DerivedSlice extends AbstractSlice {
     private final NamePattern namePattern;
     private final Predicate<Clazz> predicate;
-    private final Set<Clazz> cache = new HashSet<Clazz>();
+    private final Set<Clazz> cache = Collections.newSetFromMap(new ConcurrentHashMap<Clazz, Boolean>());
 
     private DerivedSlice(NamePattern namePattern, Predicate<Clazz> predicate) {
         this.namePattern = namePattern;
@@ -45,6 +46,13 @@ final class DerivedSlice extends AbstractSlice {
         this(NamePattern.ANY_NAME, predicate);
     }
 
+    /**
+     * @return the pattern each class of this slice must match, {@link NamePattern#ANY_NAME} if none
+     */
+    NamePattern getNamePattern() {
+        return namePattern;
+    }
+
     @Override
     public Slice slice(final Predicate<Clazz> predicate) {
         return new DerivedSlice(new Predicate<Clazz>() {
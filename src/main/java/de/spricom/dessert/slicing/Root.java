@@ -20,6 +20,7 @@ package de.spricom.dessert.slicing;
  * #L%
  */
 
+import de.spricom.dessert.resolve.ClassEntry;
 import de.spricom.dessert.resolve.ClassRoot;
 
 import java.net.URI;
@@ -52,6 +53,11 @@ public class Root extends AbstractRootSlice {
         return true;
     }
 
+    @Override
+    boolean isRootOf(ClassEntry ce) {
+        return ce.getPackage().getRoot() == root;
+    }
+
     public String toString() {
         return "root of " + root.getRootFile().getName();
     }
@@ -148,6 +148,38 @@ public interface Slice {
      */
     ConcreteSlice getDependencies();
 
+    /**
+     * Returns a slice of all classes of the {@link Classpath} that depend on any class
+     * of this slice. Hence, it is the inverse of {@link #getDependencies()}. The
+     * Classpath builds an inverted dependency index on the first call, thereafter the
+     * time needed is proportional to the size of the result. The index covers the classes
+     * of the Classpath's roots and those created before. Classes loaded on demand while
+     * building the index, i.e. JDK classes, are not reported as users.
+     *
+     * @return the users of this slice
+     */
+    ConcreteSlice getUsers();
+
+    /**
+     * Returns a slice of all classes this slice depends on directly or indirectly.
+     * A class of this slice belongs to the result only if it is part of a dependency cycle.
+     * The transitive dependencies are memoized within each {@link Clazz}, thus subsequent
+     * calls for classes already visited won't traverse the dependency graph again.
+     *
+     * @return the transitive dependencies
+     */
+    ConcreteSlice getTransitiveDependencies();
+
+    /**
+     * Checks whether this slice depends on some class of <i>other</i> directly or indirectly.
+     * The dependency graph is traversed breadth-first until the first class of <i>other</i>
+     * has been reached.
+     *
+     * @param other the slice to look for
+     * @return true if some class of <i>other</i> can be reached
+     */
+    boolean reaches(Slice other);
+
     /**
      * Check whether there is a dependency to some other slice.
      *
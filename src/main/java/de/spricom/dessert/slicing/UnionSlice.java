@@ -20,22 +20,55 @@ package de.spricom.dessert.slicing;
  * #L%
  */
 
+import de.spricom.dessert.matching.NamePattern;
+import de.spricom.dessert.matching.NamePatternSet;
 import de.spricom.dessert.util.Predicate;
+import de.spricom.dessert.util.SparseBitSet;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 class UnionSlice extends AbstractSlice {
     private final List<Slice> slices;
-    private Boolean iterable;
+    private final List<Slice> otherSlices;
+    private final List<Slice> patternSlices;
+    private final NamePatternSet namePatterns;
+    private volatile Set<Clazz> clazzes;
 
     public UnionSlice(List<Slice> slices) {
         if (slices.size() < 2) {
             throw new IllegalArgumentException("Union must contain at least two slices");
         }
         this.slices = slices;
+        List<Slice> others = new ArrayList<Slice>(slices.size());
+        List<Slice> patternBased = new ArrayList<Slice>(slices.size());
+        List<NamePattern> patterns = new ArrayList<NamePattern>(slices.size());
+        for (Slice slice : slices) {
+            NamePattern pattern = namePatternOf(slice);
+            if (pattern.isAny()) {
+                others.add(slice);
+            } else {
+                patternBased.add(slice);
+                patterns.add(pattern);
+            }
+        }
+        if (patternBased.size() < 2) {
+            otherSlices = slices;
+            patternSlices = null;
+            namePatterns = null;
+        } else {
+            otherSlices = others;
+            patternSlices = patternBased;
+            namePatterns = new NamePatternSet(patterns);
+        }
+    }
+
+    private static NamePattern namePatternOf(Slice slice) {
+        if (slice instanceof DerivedSlice) {
+            return ((DerivedSlice) slice).getNamePattern();
+        } else if (slice instanceof DeferredSlice) {
+            return ((DeferredSlice) slice).getNamePattern();
+        }
+        return NamePattern.ANY_NAME;
     }
 
     @Override
@@ -47,23 +80,84 @@ class UnionSlice extends AbstractSlice {
         return new UnionSlice(derived);
     }
 
+    /**
+     * Slices derived from a name pattern can only contain classes matching that pattern.
+     * Hence, the name is matched against all these patterns at once and only the slices
+     * with a matching pattern have to be asked.
+     */
     @Override
     public boolean contains(Clazz clazz) {
-        for (Slice slice : slices) {
+        for (Slice slice : otherSlices) {
             if (slice.contains(clazz)) {
                 return true;
             }
         }
+        if (namePatterns != null) {
+            for (int index : namePatterns.match(clazz.getName())) {
+                if (patternSlices.get(index).contains(clazz)) {
+                    return true;
+                }
+            }
+        }
         return false;
     }
 
+    /**
+     * The union is determined on first access. It's a bit-wise union if all
+     * slices are concrete and stem from the same {@link Classpath}.
+     *
+     * @return an immutable set of all classes of the slices united
+     */
     @Override
     public Set<Clazz> getClazzes() {
-        // TODO: Could be optimized by implementing a UnionSet.
-        HashSet<Clazz> clazzes = new HashSet<Clazz>();
+        Set<Clazz> result = clazzes;
+        if (result == null) {
+            result = unite();
+            clazzes = result;
+        }
+        return result;
+    }
+
+    private Set<Clazz> unite() {
+        Classpath classpath = null;
+        List<SparseBitSet> bitSets = new ArrayList<SparseBitSet>(slices.size());
+        for (Slice slice : slices) {
+            Classpath cp;
+            SparseBitSet bits;
+            if (slice instanceof Clazz && ((Clazz) slice).getClasspath() != null) {
+                Clazz clazz = (Clazz) slice;
+                cp = clazz.getClasspath();
+                bits = new SparseBitSet();
+                bits.set(clazz.getId());
+            } else {
+                Set<Clazz> set = slice.getClazzes();
+                if (set.isEmpty()) {
+                    continue;
+                }
+                if (!(set instanceof ClazzSet)) {
+                    return copy();
+                }
+                cp = ((ClazzSet) set).getClasspath();
+                bits = ((ClazzSet) set).getBits();
+            }
+            if (classpath == null) {
+                classpath = cp;
+            } else if (classpath != cp) {
+                return copy();
+            }
+            bitSets.add(bits);
+        }
+        if (bitSets.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new ClazzSet(classpath, SparseBitSet.union(bitSets));
+    }
+
+    private Set<Clazz> copy() {
+        Set<Clazz> union = new HashSet<Clazz>();
         for (Slice slice : slices) {
-            clazzes.addAll(slice.getClazzes());
+            union.addAll(slice.getClazzes());
         }
-        return clazzes;
+        return Collections.unmodifiableSet(union);
     }
 }
@@ -0,0 +1,89 @@
+package de.spricom.dessert.slicing;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.util.SparseBitSet;
+
+import java.util.Arrays;
+
+/**
+ * The inverted dependency index of a {@link Classpath}. It maps the id of each
+ * {@link Clazz} to the ids of all classes that depend on it. The users of all
+ * classes are stored in one flat array, the users of a single class in ascending order.
+ */
+final class UsersIndex {
+    private final int indexedCount;
+    private final int[] offsets;
+    private final int[] users;
+
+    /**
+     * Builds the index for all classes of the <i>classpath</i> and any other {@link Clazz}
+     * created for it so far. Classes created while determining the dependencies, i.e. JDK
+     * classes loaded on demand, are not indexed. Hence they are never reported as users.
+     *
+     * @param classpath the classpath
+     */
+    UsersIndex(Classpath classpath) {
+        classpath.getClazzes();
+        indexedCount = classpath.getClazzCount();
+        SparseBitSet[] dependencies = new SparseBitSet[indexedCount];
+        for (int i = 0; i < indexedCount; i++) {
+            Clazz clazz = classpath.clazzById(i);
+            dependencies[i] = clazz == null ? SparseBitSet.EMPTY : clazz.getDependencies().getBits();
+        }
+        offsets = new int[indexedCount + 1];
+        int count = 0;
+        for (int i = 0; i < indexedCount; i++) {
+            SparseBitSet deps = dependencies[i];
+            for (int dep = deps.nextSetBit(0); dep >= 0 && dep < indexedCount; dep = deps.nextSetBit(dep + 1)) {
+                offsets[dep + 1]++;
+                count++;
+            }
+        }
+        for (int i = 0; i < indexedCount; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        users = new int[count];
+        int[] next = Arrays.copyOf(offsets, indexedCount);
+        for (int i = 0; i < indexedCount; i++) {
+            SparseBitSet deps = dependencies[i];
+            for (int dep = deps.nextSetBit(0); dep >= 0 && dep < indexedCount; dep = deps.nextSetBit(dep + 1)) {
+                users[next[dep]++] = i;
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of all indexed classes that depend on the class with the id passed.
+     *
+     * @param id the id of the dependency
+     * @return the ids of the users
+     */
+    SparseBitSet getUsers(int id) {
+        SparseBitSet result = new SparseBitSet();
+        if (id < indexedCount) {
+            for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                result.set(users[i]);
+            }
+        }
+        return result;
+    }
+}
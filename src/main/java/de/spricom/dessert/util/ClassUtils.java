@@ -80,6 +80,9 @@ public final class ClassUtils {
             } catch (UnsupportedEncodingException ex) {
                 throw new IllegalStateException("UTF-8 encoding not supported!", ex);
             }
+        } else if ("jrt".equals(url.getProtocol())) {
+            // All classes of the Java runtime image of JDK 9 and above are within the lib/modules file.
+            return new File(new File(System.getProperty("java.home"), "lib"), "modules");
         } else {
             throw new IllegalArgumentException("Unknown protocol in " + url);
         }
@@ -0,0 +1,47 @@
+package de.spricom.dessert.util;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates daemon threads named by a prefix and a sequence number. Thus worker threads
+ * that have not been shut down, i.e. after a failure or an interruption, never prevent
+ * the JVM from exiting.
+ */
+public final class DaemonThreadFactory implements ThreadFactory {
+    private final String prefix;
+    private int count;
+
+    /**
+     * @param prefix the prefix of the thread names
+     */
+    public DaemonThreadFactory(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public synchronized Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, prefix + ++count);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
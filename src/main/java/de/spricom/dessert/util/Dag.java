@@ -26,6 +26,11 @@ import java.util.*;
  * This class implements the Depth-first search algorithm (see <a href=
  * "https://en.wikipedia.org/wiki/Topological_sorting">https://en.wikipedia.org/wiki/Topological_sorting</a>)
  * to detect illegal cycles on a directed acyclic graph.
+ * Additionally it determines all groups of nodes that are part of some cycle by using
+ * Tarjan's strongly connected components algorithm (see <a href=
+ * "https://en.wikipedia.org/wiki/Tarjan%27s_strongly_connected_components_algorithm"
+ * >https://en.wikipedia.org/wiki/Tarjan%27s_strongly_connected_components_algorithm</a>).
+ * Both algorithms are implemented without recursion, thus they can handle large graphs.
  *
  * @param <T> The node type.
  */
@@ -38,6 +43,9 @@ public final class Dag<T> {
         final T value;
         final Set<Node<T>> edges = new HashSet<Node<T>>();
         Mark mark = Mark.NONE;
+        int index = -1;
+        int lowlink;
+        boolean onStack;
 
         public Node(T value) {
             assert value != null : "value == null";
@@ -66,9 +74,11 @@ public final class Dag<T> {
     private Map<T, Node<T>> nodes = new HashMap<T, Node<T>>();
     private LinkedList<Node<T>> sorted;
     private LinkedList<Node<T>> cycle;
+    private List<List<T>> cycleGroups;
 
     public void addEdge(T from, T to) {
         sorted = null;
+        cycleGroups = null;
         getNode(from).edges.add(getNode(to));
     }
 
@@ -92,6 +102,20 @@ public final class Dag<T> {
         return values(cycle);
     }
 
+    /**
+     * Returns all strongly connected components that contain a cycle. That are
+     * all components with more than one node and each single node with an edge to itself.
+     * Hence, each node that is part of some cycle belongs to exactly one of the groups returned.
+     *
+     * @return the groups of nodes that form cycles, an empty list if there is no cycle
+     */
+    public List<List<T>> cycleGroups() {
+        if (cycleGroups == null) {
+            cycleGroups = findCycleGroups();
+        }
+        return cycleGroups;
+    }
+
     private List<T> values(List<Node<T>> nodes) {
         List<T> list = new ArrayList<T>(nodes.size());
         for (Node<T> node : nodes) {
@@ -102,6 +126,10 @@ public final class Dag<T> {
 
     private void sort() {
         sorted = new LinkedList<Node<T>>();
+        cycle = null;
+        for (Node<T> n : nodes.values()) {
+            n.mark = Mark.NONE;
+        }
         for (Node<T> n : nodes.values()) {
             if (visit(n)) {
                 return;
@@ -109,24 +137,93 @@ public final class Dag<T> {
         }
     }
 
-    private boolean visit(Node<T> n) {
-        if (n.mark == Mark.PERMANENT) {
+    private boolean visit(Node<T> root) {
+        if (root.mark == Mark.PERMANENT) {
             return false;
-        } else if (n.mark == Mark.TEMPORARY) {
-            cycle = new LinkedList<Node<T>>();
-            cycle.add(n);
-            return true;
-        } else {
-            n.mark = Mark.TEMPORARY;
-            for (Node<T> m : n.edges) {
-                if (visit(m)) {
-                    cycle.addFirst(n);
+        }
+        LinkedList<Node<T>> path = new LinkedList<Node<T>>();
+        LinkedList<Iterator<Node<T>>> pending = new LinkedList<Iterator<Node<T>>>();
+        root.mark = Mark.TEMPORARY;
+        path.addLast(root);
+        pending.addLast(root.edges.iterator());
+        while (!path.isEmpty()) {
+            Iterator<Node<T>> iter = pending.getLast();
+            if (iter.hasNext()) {
+                Node<T> m = iter.next();
+                if (m.mark == Mark.TEMPORARY) {
+                    cycle = new LinkedList<Node<T>>(path);
+                    cycle.addLast(m);
                     return true;
+                } else if (m.mark == Mark.NONE) {
+                    m.mark = Mark.TEMPORARY;
+                    path.addLast(m);
+                    pending.addLast(m.edges.iterator());
+                }
+            } else {
+                Node<T> n = path.removeLast();
+                pending.removeLast();
+                n.mark = Mark.PERMANENT;
+                sorted.addFirst(n);
+            }
+        }
+        return false;
+    }
+
+    private List<List<T>> findCycleGroups() {
+        for (Node<T> n : nodes.values()) {
+            n.index = -1;
+            n.onStack = false;
+        }
+        List<List<T>> groups = new ArrayList<List<T>>();
+        LinkedList<Node<T>> stack = new LinkedList<Node<T>>();
+        LinkedList<Node<T>> path = new LinkedList<Node<T>>();
+        LinkedList<Iterator<Node<T>>> pending = new LinkedList<Iterator<Node<T>>>();
+        int index = 0;
+        for (Node<T> root : nodes.values()) {
+            if (root.index != -1) {
+                continue;
+            }
+            root.index = root.lowlink = index++;
+            root.onStack = true;
+            stack.addLast(root);
+            path.addLast(root);
+            pending.addLast(root.edges.iterator());
+            while (!path.isEmpty()) {
+                Node<T> n = path.getLast();
+                Iterator<Node<T>> iter = pending.getLast();
+                if (iter.hasNext()) {
+                    Node<T> m = iter.next();
+                    if (m.index == -1) {
+                        m.index = m.lowlink = index++;
+                        m.onStack = true;
+                        stack.addLast(m);
+                        path.addLast(m);
+                        pending.addLast(m.edges.iterator());
+                    } else if (m.onStack) {
+                        n.lowlink = Math.min(n.lowlink, m.index);
+                    }
+                    continue;
+                }
+                path.removeLast();
+                pending.removeLast();
+                if (!path.isEmpty()) {
+                    Node<T> parent = path.getLast();
+                    parent.lowlink = Math.min(parent.lowlink, n.lowlink);
+                }
+                if (n.lowlink == n.index) {
+                    LinkedList<T> group = new LinkedList<T>();
+                    Node<T> m;
+                    do {
+                        m = stack.removeLast();
+                        m.onStack = false;
+                        group.addFirst(m.value);
+                    } while (m != n);
+                    if (group.size() > 1 || n.edges.contains(n)) {
+                        groups.add(new ArrayList<T>(group));
+                    }
                 }
             }
-            n.mark = Mark.PERMANENT;
-            sorted.addFirst(n);
-            return false;
         }
+        return groups;
     }
 }
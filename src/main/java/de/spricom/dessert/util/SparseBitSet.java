@@ -0,0 +1,356 @@
+package de.spricom.dessert.util;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A compressed set of non-negative integers. Only the 64-bit words that contain
+ * at least one set bit are stored, ordered by their word index. Hence the memory
+ * needed depends on the number of occupied words and not on the largest bit.
+ * Union, intersection and difference are done word-wise by merging the ordered
+ * word indices of both sets.
+ *
+ * <p>The {@link #set(int)} method must only be used while filling a new set.
+ * All other operations do not modify this set, thus a filled set can be shared
+ * between threads. They never return one of their operands, but either a new set
+ * or the immutable {@link #EMPTY} set.</p>
+ */
+public final class SparseBitSet {
+    /**
+     * The empty set, {@link #set(int)} throws an {@link UnsupportedOperationException}.
+     */
+    public static final SparseBitSet EMPTY = new SparseBitSet(new int[0], new long[0], 0);
+
+    private int[] keys;
+    private long[] words;
+    private int size;
+
+    public SparseBitSet() {
+        this(new int[4], new long[4], 0);
+    }
+
+    private SparseBitSet(int[] keys, long[] words, int size) {
+        this.keys = keys;
+        this.words = words;
+        this.size = size;
+    }
+
+    /**
+     * Creates a set of the <i>bits</i> given. The arrays of the set are sized exactly,
+     * thus no memory is wasted for spare capacity.
+     *
+     * @param bits the bits to set, the array will be sorted
+     * @return the set
+     */
+    public static SparseBitSet of(int[] bits) {
+        if (bits.length == 0) {
+            return EMPTY;
+        }
+        Arrays.sort(bits);
+        if (bits[0] < 0) {
+            throw new IndexOutOfBoundsException("bit < 0: " + bits[0]);
+        }
+        int n = 1;
+        for (int i = 1; i < bits.length; i++) {
+            if (bits[i] >>> 6 != bits[i - 1] >>> 6) {
+                n++;
+            }
+        }
+        int[] k = new int[n];
+        long[] w = new long[n];
+        n = -1;
+        int key = -1;
+        for (int bit : bits) {
+            if (bit >>> 6 != key) {
+                key = bit >>> 6;
+                k[++n] = key;
+            }
+            w[n] |= 1L << bit;
+        }
+        return new SparseBitSet(k, w, n + 1);
+    }
+
+    /**
+     * Returns the union of all <i>sets</i>. This is faster than merging them one by one,
+     * because each word is copied only once.
+     *
+     * @param sets the sets to unite
+     * @return the union
+     */
+    public static SparseBitSet union(Collection<SparseBitSet> sets) {
+        int maxKey = -1;
+        for (SparseBitSet set : sets) {
+            if (set.size > 0) {
+                maxKey = Math.max(maxKey, set.keys[set.size - 1]);
+            }
+        }
+        if (maxKey == -1) {
+            return EMPTY;
+        }
+        long[] dense = new long[maxKey + 1];
+        for (SparseBitSet set : sets) {
+            for (int i = 0; i < set.size; i++) {
+                dense[set.keys[i]] |= set.words[i];
+            }
+        }
+        int n = 0;
+        for (long word : dense) {
+            if (word != 0) {
+                n++;
+            }
+        }
+        int[] k = new int[n];
+        long[] w = new long[n];
+        n = 0;
+        for (int key = 0; key < dense.length; key++) {
+            if (dense[key] != 0) {
+                k[n] = key;
+                w[n++] = dense[key];
+            }
+        }
+        return new SparseBitSet(k, w, n);
+    }
+
+    /**
+     * Sets a bit. Setting the bits in ascending order is fastest.
+     *
+     * @param bit the bit to set
+     */
+    public void set(int bit) {
+        if (this == EMPTY) {
+            throw new UnsupportedOperationException("SparseBitSet.EMPTY is immutable");
+        }
+        if (bit < 0) {
+            throw new IndexOutOfBoundsException("bit < 0: " + bit);
+        }
+        int key = bit >>> 6;
+        long mask = 1L << bit;
+        if (size > 0 && keys[size - 1] == key) {
+            words[size - 1] |= mask;
+            return;
+        }
+        int index = size > 0 && keys[size - 1] < key ? -size - 1 : Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            words[index] |= mask;
+            return;
+        }
+        index = -index - 1;
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            words = Arrays.copyOf(words, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(words, index, words, index + 1, size - index);
+        keys[index] = key;
+        words[index] = mask;
+        size++;
+    }
+
+    private SparseBitSet copy() {
+        if (size == 0) {
+            return EMPTY;
+        }
+        return new SparseBitSet(Arrays.copyOf(keys, size), Arrays.copyOf(words, size), size);
+    }
+
+    public boolean get(int bit) {
+        if (bit < 0 || size == 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, bit >>> 6);
+        return index >= 0 && (words[index] & (1L << bit)) != 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the index of the first bit that is set and greater or equal to <i>fromIndex</i>.
+     *
+     * @param fromIndex the index to start with
+     * @return the next set bit or -1 if there is none
+     */
+    public int nextSetBit(int fromIndex) {
+        if (fromIndex < 0) {
+            fromIndex = 0;
+        }
+        int key = fromIndex >>> 6;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            long word = words[index] & (-1L << fromIndex);
+            if (word != 0) {
+                return (key << 6) + Long.numberOfTrailingZeros(word);
+            }
+            index++;
+        } else {
+            index = -index - 1;
+        }
+        if (index < size) {
+            return (keys[index] << 6) + Long.numberOfTrailingZeros(words[index]);
+        }
+        return -1;
+    }
+
+    public boolean intersects(SparseBitSet other) {
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else if ((words[i++] & other.words[j++]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public SparseBitSet or(SparseBitSet other) {
+        if (other.size == 0) {
+            return copy();
+        }
+        if (size == 0) {
+            return other.copy();
+        }
+        int[] k = new int[size + other.size];
+        long[] w = new long[size + other.size];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                k[n] = keys[i];
+                w[n++] = words[i++];
+            } else if (i == size || keys[i] > other.keys[j]) {
+                k[n] = other.keys[j];
+                w[n++] = other.words[j++];
+            } else {
+                k[n] = keys[i];
+                w[n++] = words[i++] | other.words[j++];
+            }
+        }
+        return new SparseBitSet(k, w, n);
+    }
+
+    public SparseBitSet and(SparseBitSet other) {
+        int capacity = Math.min(size, other.size);
+        int[] k = new int[capacity];
+        long[] w = new long[capacity];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                long word = words[i] & other.words[j];
+                if (word != 0) {
+                    k[n] = keys[i];
+                    w[n++] = word;
+                }
+                i++;
+                j++;
+            }
+        }
+        return n == 0 ? EMPTY : new SparseBitSet(k, w, n);
+    }
+
+    public SparseBitSet andNot(SparseBitSet other) {
+        if (size == 0 || other.size == 0) {
+            return copy();
+        }
+        int[] k = new int[size];
+        long[] w = new long[size];
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            long word = words[i];
+            if (j < other.size && other.keys[j] == keys[i]) {
+                word &= ~other.words[j];
+            }
+            if (word != 0) {
+                k[n] = keys[i];
+                w[n++] = word;
+            }
+        }
+        return n == 0 ? EMPTY : new SparseBitSet(k, w, n);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int i = 0; i < size; i++) {
+            h = 31 * h + keys[i];
+            h = 31 * h + (int) (words[i] ^ (words[i] >>> 32));
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        SparseBitSet other = (SparseBitSet) obj;
+        if (size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != other.keys[i] || words[i] != other.words[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int bit = nextSetBit(0); bit >= 0; bit = nextSetBit(bit + 1)) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(bit);
+        }
+        return sb.append("}").toString();
+    }
+}
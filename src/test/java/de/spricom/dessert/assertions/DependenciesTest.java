@@ -80,7 +80,9 @@ public class DependenciesTest {
 
     /**
      * Make sure the whole dessert library does not depend on anyting but the
-     * JDK packages specified below.
+     * JDK packages specified below. Only the classes accessing the Java runtime image
+     * of JDK 9 and above may use java.nio.file. Only the memory-mapped zip archive
+     * may use java.nio.
      */
     @Test
     public void testExternalDependencies() {
@@ -89,7 +91,13 @@ public class DependenciesTest {
                 sc.packageTreeOf("java.util"),
                 sc.packageTreeOf("java.io"),
                 sc.packageTreeOf("java.net"));
-        dessert(main).usesOnly(java);
+        Slice jrtSupport = sc.sliceOf(
+                "de.spricom.dessert.resolve.JrtRoot",
+                "de.spricom.dessert.resolve.JrtClassEntry");
+        Slice zipSupport = sc.asClazz("de.spricom.dessert.resolve.ZipArchive");
+        dessert(main.minus(jrtSupport, zipSupport)).usesOnly(java, jrtSupport, zipSupport);
+        dessert(jrtSupport).usesOnly(java, main, sc.packageTreeOf("java.nio.file"));
+        dessert(zipSupport).usesOnly(java, main, sc.packageTreeOf("java.nio"));
     }
 
     @Test
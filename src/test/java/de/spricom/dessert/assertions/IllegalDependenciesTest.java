@@ -22,8 +22,15 @@ package de.spricom.dessert.assertions;
 
 import de.spricom.dessert.slicing.Classpath;
 import de.spricom.dessert.slicing.Clazz;
+import de.spricom.dessert.slicing.Slice;
+import de.spricom.dessert.util.Dag;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Set;
+
 import static de.spricom.dessert.assertions.SliceAssertions.dessert;
 import static org.fest.assertions.Assertions.assertThat;
 
@@ -41,4 +48,138 @@ public class IllegalDependenciesTest {
                     " -> org.junit.Test\n");
         }
     }
+
+    @Test
+    public void testReverseLookupReportsSameViolations() {
+        Classpath cp = new Classpath();
+        Slice slicing = cp.packageTreeOf("de.spricom.dessert.slicing");
+        Clazz set = cp.asClazz(Set.class);
+        String forward = null;
+        try {
+            dessert(slicing).usesNot(set.named("set"));
+        } catch (AssertionError er) {
+            forward = er.getMessage();
+        }
+        assertThat(forward).startsWith("Illegal Dependencies:\n");
+        String reverse = null;
+        try {
+            dessert(slicing).usingUsersIndex().usesNot(set);
+        } catch (AssertionError er) {
+            reverse = er.getMessage();
+        }
+        assertThat(reverse).isEqualTo(forward);
+    }
+
+    @Test
+    public void testCycleGroups() {
+        Classpath cp = new Classpath();
+        Slice clazz = cp.asClazz(Clazz.class).named("clazz");
+        Slice classpath = cp.asClazz(Classpath.class).named("classpath");
+        Slice dag = cp.asClazz(Dag.class).named("dag");
+        Slice node = cp.asClazz("de.spricom.dessert.util.Dag$Node").named("node");
+        String message = null;
+        try {
+            dessert(clazz, classpath, dag, node).isCycleFree();
+        } catch (AssertionError er) {
+            message = er.getMessage();
+        }
+        assertThat(message).startsWith("Cycle:\n").contains("2 cycle groups:");
+    }
+
+    @Test
+    public void testFailFast() {
+        Classpath cp = new Classpath();
+        Slice slicing = cp.packageTreeOf("de.spricom.dessert.slicing");
+        String message = null;
+        try {
+            dessert(slicing).failFast().usesNot(cp.packageTreeOf("java.util"));
+        } catch (AssertionError er) {
+            message = er.getMessage();
+        }
+        assertThat(countDependencies(message)).isEqualTo(1);
+        assertThat(message).endsWith("... limit of 1 violation(s) reached\n");
+    }
+
+    @Test
+    public void testLimitViolations() {
+        Classpath cp = new Classpath();
+        Slice slicing = cp.packageTreeOf("de.spricom.dessert.slicing");
+        Slice util = cp.packageTreeOf("java.util");
+        String all = null;
+        try {
+            dessert(slicing).usesNot(util);
+        } catch (AssertionError er) {
+            all = er.getMessage();
+        }
+        String limited = null;
+        try {
+            dessert(slicing).limitViolations(3).usesNot(util);
+        } catch (AssertionError er) {
+            limited = er.getMessage();
+        }
+        int total = countDependencies(all);
+        assertThat(total).isGreaterThan(3);
+        assertThat(countDependencies(limited)).isEqualTo(3);
+        assertThat(limited).endsWith("... and " + (total - 3) + " more\n");
+    }
+
+    @Test
+    public void testOmittedCountsDistinctViolations() {
+        Classpath cp = new Classpath();
+        Clazz slice = cp.asClazz(Slice.class);
+        Clazz set = cp.asClazz(Set.class);
+        Clazz dag = cp.asClazz(Dag.class);
+        IllegalDependencies violations = new IllegalDependencies(1, true);
+        violations.add(slice, set);
+        violations.add(slice, set);
+        violations.add(slice, dag);
+        violations.add(slice, dag);
+        violations.add(dag, set);
+        assertThat(violations.isLimitReached()).isTrue();
+        assertThat(violations.getOmittedCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testBaseline() throws IOException {
+        Classpath cp = new Classpath();
+        Slice slicing = cp.packageTreeOf("de.spricom.dessert.slicing");
+        Slice util = cp.packageTreeOf("java.util");
+        Baseline recorded = new Baseline();
+        dessert(slicing).recordingTo(recorded).usesNot(util);
+        assertThat(recorded.size()).isGreaterThan(1);
+        assertThat(recorded.contains(cp.asClazz(Clazz.class), cp.asClazz(Set.class))).isTrue();
+
+        StringWriter out = new StringWriter();
+        recorded.write(out);
+        Baseline baseline = Baseline.read(new StringReader("# frozen\n\n" + out));
+        assertThat(baseline.size()).isEqualTo(recorded.size());
+        dessert(slicing).ignoring(baseline).usesNot(util);
+
+        Baseline partial = Baseline.read(new StringReader(out.toString()
+                .replace(Clazz.class.getName() + " -> " + Set.class.getName() + "\n", "")));
+        String message = null;
+        try {
+            dessert(slicing).ignoring(partial).usesNot(util);
+        } catch (AssertionError er) {
+            message = er.getMessage();
+        }
+        assertThat(message).isEqualTo("Illegal Dependencies:\n" +
+                Clazz.class.getName() + "\n" +
+                " -> " + Set.class.getName() + "\n");
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformedBaseline() throws IOException {
+        Baseline.read(new StringReader("de.spricom.Foo de.spricom.Bar\n"));
+    }
+
+    private int countDependencies(String message) {
+        int count = 0;
+        for (String line : message.split("\n")) {
+            if (line.startsWith(" -> ")) {
+                count++;
+            }
+        }
+        return count;
+    }
 }
@@ -0,0 +1,114 @@
+package de.spricom.dessert.classfile;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.matching.NamePattern;
+import de.spricom.dessert.resolve.ClassEntry;
+import de.spricom.dessert.resolve.ClassResolver;
+import de.spricom.dessert.resolve.ClassVisitor;
+import de.spricom.dessert.samples.annotations.SpecialArgSample;
+import de.spricom.dessert.samples.basic.Outer;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Makes sure {@link ClassFile#readDependentClasses(InputStream)} and
+ * {@link ClassFile#readDependentClasses(byte[])} determine
+ * exactly the same classes as {@link ClassFile#getDependentClasses()}.
+ */
+public class DependencyParserTest {
+
+    @Test
+    public void testSamples() throws IOException {
+        check(getClass());
+        check(SpecialArgSample.class);
+        check(Outer.class);
+        check(ClassFile.class);
+    }
+
+    @Test
+    public void testClassPathAndJdk() throws IOException {
+        ClassResolver resolver = ClassResolver.ofClassPathAndBootClassPath();
+        final List<ClassEntry> entries = new ArrayList<ClassEntry>();
+        ClassVisitor visitor = new ClassVisitor() {
+            @Override
+            public void visit(ClassEntry cfe) {
+                entries.add(cfe);
+            }
+        };
+        resolver.traverse(NamePattern.of("de.spricom.dessert..*"), visitor);
+        resolver.traverse(NamePattern.of("org.junit..*"), visitor);
+        resolver.traverse(NamePattern.of("java..*"), visitor);
+        assertThat(entries.size()).isGreaterThan(100);
+        for (ClassEntry entry : entries) {
+            InputStream is = entry.getURI().toURL().openStream();
+            assertThat(ClassFile.readDependentClasses(is))
+                    .as(entry.getClassname())
+                    .isEqualTo(entry.getClassfile().getDependentClasses());
+        }
+    }
+
+    @Test
+    public void testTruncatedClassFile() throws IOException {
+        byte[] bytes = readAll(getClass());
+        try {
+            ClassFile.readDependentClasses(Arrays.copyOf(bytes, bytes.length / 2));
+            fail("No IOException");
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+
+    private void check(Class<?> clazz) throws IOException {
+        Set<String> expected = new ClassFile(clazz).getDependentClasses();
+        assertThat(ClassFile.readDependentClasses(open(clazz))).isEqualTo(expected);
+        assertThat(ClassFile.readDependentClasses(readAll(clazz))).isEqualTo(expected);
+    }
+
+    private InputStream open(Class<?> clazz) {
+        return clazz.getResourceAsStream("/" + clazz.getName().replace('.', '/') + ".class");
+    }
+
+    private byte[] readAll(Class<?> clazz) throws IOException {
+        InputStream is = open(clazz);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+}
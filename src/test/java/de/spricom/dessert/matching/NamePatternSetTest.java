@@ -0,0 +1,89 @@
+package de.spricom.dessert.matching;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class NamePatternSetTest {
+    private static final String[] PATTERNS = {
+            "de.spricom.dessert.slicing.*",
+            "de.spricom.dessert.slicing.Clazz",
+            "de.spricom.dessert..*",
+            "de..slicing.*",
+            "..slicing.*",
+            "..*Slice",
+            "de.spricom.*.*",
+            "*.*",
+            "de.spricom.dessert.slicing.Clazz",
+            "..resolve|slicing.Class*",
+            "..*Test*",
+            "java.lang.*",
+            "..*"
+    };
+
+    private static final String[] NAMES = {
+            "de.spricom.dessert.slicing.Clazz",
+            "de.spricom.dessert.slicing.Slice",
+            "de.spricom.dessert.slicing.sub.Slice",
+            "de.spricom.dessert.resolve.ClassResolver",
+            "de.spricom.dessert.resolve.ClassResolverTest",
+            "de.spricom.Foo",
+            "de.Foo",
+            "slicing.Foo",
+            "java.lang.String",
+            "java.lang.annotation.Annotation",
+            "Foo"
+    };
+
+    @Test
+    public void testAgreesWithNamePattern() {
+        NamePatternSet set = NamePatternSet.of(PATTERNS);
+        assertThat(set.size()).isEqualTo(PATTERNS.length);
+        for (String name : NAMES) {
+            List<Integer> expected = new ArrayList<Integer>();
+            for (int i = 0; i < PATTERNS.length; i++) {
+                if (NamePattern.of(PATTERNS[i]).matches(name)) {
+                    expected.add(i);
+                }
+            }
+            List<Integer> actual = new ArrayList<Integer>();
+            for (int index : set.match(name)) {
+                actual.add(index);
+            }
+            assertThat(actual).as(name).isEqualTo(expected);
+            assertThat(set.firstMatch(name)).as(name).isEqualTo(expected.get(0));
+        }
+    }
+
+    @Test
+    public void testNoMatch() {
+        NamePatternSet set = NamePatternSet.of("de.spricom..*", "java.*");
+        assertThat(set.match("org.junit.Test")).isEmpty();
+        assertThat(set.firstMatch("org.junit.Test")).isEqualTo(-1);
+        assertThat(set.matchesAny("java.lang.String")).isFalse();
+        assertThat(set.matchesAny("de.spricom.dessert.slicing.Slice")).isTrue();
+    }
+}
@@ -104,4 +104,44 @@ public class NamePatternTest {
         checkInvalid("..");
         checkInvalid("sample...Foo");
     }
+
+    @Test
+    public void testGlobs() {
+        check("sample.F*o*o", "sample.Foo", true);
+        check("sample.F*o*o", "sample.Fooo", true);
+        check("sample.F*o*o", "sample.Fox", false);
+        check("sample.*Bar|Foo*", "sample.FooBaz", true);
+        check("sample.*Bar|Foo*", "sample.MyBar", true);
+        check("sample.*Bar|Foo*", "sample.MyBaz", false);
+        check("sample.**", "sample.Foo", true);
+    }
+
+    @Test
+    public void testAgreesWithShortNameMatchers() {
+        String[] patterns = {"*", "..*", "sample..*", "..foo..*", "*..*..*", "sample.*", "..Ba*",
+                "sample..foo.bar.Baz", "..f*|b*.*", "sample.*.Baz|Bar", "*.foo..*$*"};
+        String[] names = {"Foo", "sample.Foo", "sample.foo.Bar", "sample.foo.bar.Baz", "foo.foo.foo.Bar",
+                "sample.Foo$Bar", "x.foo.y.foo.Z$1", "sample.bar.Baz"};
+        for (String pattern : patterns) {
+            NamePattern namePattern = NamePattern.of(pattern);
+            for (String name : names) {
+                assertThat(namePattern.matches(name))
+                        .as("\"" + name + "\"/" + pattern + "/")
+                        .isEqualTo(matchesByTraversal(namePattern.matcher(), name.split("\\."), 0));
+            }
+        }
+    }
+
+    private boolean matchesByTraversal(ShortNameMatcher matcher, String[] parts, int index) {
+        for (int i = index; i < parts.length; i++) {
+            if (!matcher.isMatchPossible()) {
+                return false;
+            }
+            if (matcher.isWildcard() && matchesByTraversal(matcher.next().match(parts[i]), parts, i + 1)) {
+                return true;
+            }
+            matcher = matcher.match(parts[i]);
+        }
+        return matcher.matches();
+    }
 }
@@ -21,6 +21,7 @@ package de.spricom.dessert.partitioning;
  */
 
 import de.spricom.dessert.slicing.Classpath;
+import de.spricom.dessert.slicing.PartitionSlice;
 import de.spricom.dessert.slicing.Slice;
 import de.spricom.dessert.util.ClassUtils;
 import de.spricom.dessert.util.Predicate;
@@ -28,14 +29,18 @@ import de.spricom.dessert.util.Predicates;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+
 import static org.fest.assertions.Assertions.assertThat;
 
 public class PartitioningTest {
-    private static final int SLICING_COUNT = 30;
+    private static final int SLICING_COUNT = 35;
     private static final int PUBLIC_COUNT = 15;
     private static final int INTERFACE_COUNT = 5;
-    private static final int FINAL_COUNT = 8;
-    private static final int INNER_TYPE_COUNT = 8;
+    private static final int FINAL_COUNT = 11;
+    private static final int INNER_TYPE_COUNT = 10;
 
     private static final Classpath cp = new Classpath();
 
@@ -102,8 +107,25 @@ public class PartitioningTest {
     @Test
     public void testOr() {
         assertThat(slicing.slice(ClazzPredicates.PUBLIC).plus(slicing.slice(ClazzPredicates.FINAL)).getClazzes())
-                .hasSize(20);
+                .hasSize(23);
         assertThat(slicing.slice(Predicates.or(ClazzPredicates.FINAL, ClazzPredicates.PUBLIC)).getClazzes())
-                .hasSize(20);
+                .hasSize(23);
+    }
+
+    @Test
+    public void testByNamePatterns() {
+        Map<String, String> patterns = new LinkedHashMap<String, String>();
+        patterns.put("clazz", "de.spricom.dessert.slicing.Clazz*");
+        patterns.put("slices", "..slicing.*Slice");
+        patterns.put("other", "..slicing.*");
+        SortedMap<String, PartitionSlice> parts = slicing.partitionBy(SlicePartitioners.byNamePatterns(patterns));
+        assertThat(parts.keySet()).containsOnly("clazz", "slices", "other");
+        assertThat(parts.get("clazz").getClazzes()).hasSize(
+                slicing.slice("de.spricom.dessert.slicing.Clazz*").getClazzes().size());
+        int total = 0;
+        for (PartitionSlice part : parts.values()) {
+            total += part.getClazzes().size();
+        }
+        assertThat(total).isEqualTo(SLICING_COUNT);
     }
 }
@@ -29,6 +29,8 @@ import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import static org.fest.assertions.Assertions.assertThat;
@@ -92,6 +94,29 @@ public class ClassResolverTest {
         assertThat(resolver.getRootJars()).is(new ContainsFile("junit-4.13.1.jar"));
     }
 
+    @Test
+    public void testParallelScan() throws IOException {
+        ClassResolver sequential = ClassResolver.ofClassPathAndBootClassPath();
+        ClassResolver parallel = new ClassResolver();
+        parallel.setScanThreads(4);
+        parallel.addClassPath();
+        parallel.addBootClassPath();
+
+        assertThat(parallel.getRootFiles()).isEqualTo(sequential.getRootFiles());
+        assertThat(parallel.getPackageCount()).isEqualTo(sequential.getPackageCount());
+        assertThat(parallel.getClassCount()).isEqualTo(sequential.getClassCount());
+        assertThat(parallel.getDuplicates().keySet()).isEqualTo(sequential.getDuplicates().keySet());
+        for (Map.Entry<String, List<ClassEntry>> duplicate : sequential.getDuplicates().entrySet()) {
+            List<ClassEntry> alternatives = parallel.getDuplicates().get(duplicate.getKey());
+            assertThat(alternatives).hasSize(duplicate.getValue().size());
+            for (int i = 0; i < alternatives.size(); i++) {
+                assertThat(alternatives.get(i).getURI()).isEqualTo(duplicate.getValue().get(i).getURI());
+            }
+        }
+        ClassEntry cf = parallel.getClassEntry(Foo.class.getName());
+        assertThat(cf.getClassfile().getThisClass()).isEqualTo(Foo.class.getName());
+    }
+
     static class ContainsFile extends Condition<Collection<?>> {
         private final String filename;
 
@@ -110,4 +135,25 @@ public class ClassResolverTest {
             return false;
         }
     }
+
+    @Test
+    public void testFrozenPackages() throws IOException {
+        ClassResolver resolver = ClassResolver.ofClassPathWithoutJars();
+        ClassPackage cp = resolver.getPackage("de.spricom.dessert.samples.basic");
+        List<ClassEntry> classes = cp.getClasses();
+        List<ClassPackage> subPackages = cp.getParent().getSubPackages();
+        resolver.freeze();
+
+        assertThat(cp.getClasses()).isEqualTo(classes);
+        assertThat(cp.getParent().getSubPackages()).isEqualTo(subPackages);
+        for (ClassEntry ce : classes) {
+            assertThat(cp.getClass(ce.getClassname())).isSameAs(ce);
+        }
+        for (ClassPackage subPackage : subPackages) {
+            assertThat(cp.getParent().getSubPackage(subPackage.getPackageName())).isSameAs(subPackage);
+        }
+        assertThat(cp.getClass("de.spricom.dessert.samples.basic.DoesNotExist")).isNull();
+        assertThat(cp.getParent().getSubPackage("de.spricom.dessert.samples.doesnotexist")).isNull();
+        assertThat(resolver.getClassEntry(Foo.class.getName()).getPackage()).isSameAs(cp);
+    }
 }
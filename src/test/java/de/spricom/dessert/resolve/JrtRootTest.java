@@ -0,0 +1,82 @@
+package de.spricom.dessert.resolve;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.util.ClassUtils;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class JrtRootTest {
+    private ClassResolver resolver;
+
+    @Before
+    public void init() throws IOException {
+        Assume.assumeTrue(JrtRoot.isAvailable());
+        resolver = ClassResolver.ofBootClassPath();
+    }
+
+    @Test
+    public void testRoot() {
+        assertThat(resolver.getRootFiles()).containsOnly(JrtRoot.getModulesFile());
+        assertThat(ClassUtils.getRootFile(Object.class)).isEqualTo(JrtRoot.getModulesFile());
+        assertThat(resolver.getClassCount()).isGreaterThan(1000);
+        assertThat(resolver.getDuplicates()).isEmpty();
+    }
+
+    @Test
+    public void testClassEntry() {
+        ClassEntry ce = resolver.getClassEntry("java.lang.Object");
+        assertThat(ce).isInstanceOf(JrtClassEntry.class);
+        assertThat(((JrtClassEntry) ce).getModule()).isEqualTo("java.base");
+        assertThat(ce.getShortName()).isEqualTo("Object");
+        assertThat(ce.getURI()).isEqualTo(ClassUtils.getURI(Object.class));
+        assertThat(ce.getClassfile().getThisClass()).isEqualTo("java.lang.Object");
+        assertThat(ce.getDependentClasses()).isEqualTo(ce.getClassfile().getDependentClasses());
+    }
+
+    @Test
+    public void testPackagesOfDifferentModules() {
+        ClassPackage javaPackage = resolver.getPackage("java");
+        List<ClassPackage> subPackages = javaPackage.getSubPackages();
+        assertThat(javaPackage.getSubPackage("java.lang")).isNotNull();
+        assertThat(javaPackage.getSubPackage("java.sql")).isNotNull();
+        assertThat(subPackages.size()).isGreaterThan(5);
+        assertThat(resolver.getClassEntry("java.sql.Connection").getURI().toString())
+                .isEqualTo("jrt:/java.sql/java/sql/Connection.class");
+    }
+
+    @Test
+    public void testGetResource() {
+        ClassRoot root = resolver.getRoot(JrtRoot.getModulesFile());
+        URL url = root.getResource("java/lang/Object.class");
+        assertThat(url).isEqualTo(Object.class.getResource("Object.class"));
+        assertThat(root.getResource("/java/lang/DoesNotExist.class")).isNull();
+        assertThat(root.getResource("does/not/Exist.class")).isNull();
+        assertThat(root.getResourceAsStream("java/lang/Object.class")).isNotNull();
+    }
+}
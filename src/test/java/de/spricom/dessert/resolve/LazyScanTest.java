@@ -0,0 +1,96 @@
+package de.spricom.dessert.resolve;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.matching.NamePattern;
+import de.spricom.dessert.util.ClassUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class LazyScanTest {
+
+    @Test
+    public void testTraverse() throws IOException {
+        ClassResolver eager = ClassResolver.ofClassPath();
+        ClassResolver lazy = createLazyResolver();
+        assertThat(lazy.getClassCount()).isLessThan(eager.getClassCount() / 10);
+
+        NamePattern pattern = NamePattern.of("de.spricom.dessert.resolve.*");
+        Set<URI> uris = uris(lazy, pattern);
+        assertThat(uris).isEqualTo(uris(eager, pattern));
+        assertThat(uris).contains(lazy.getClassEntry(ClassResolver.class.getName()).getURI());
+        assertThat(lazy.getClassCount()).isLessThan(eager.getClassCount() / 10);
+
+        NamePattern any = NamePattern.of("org.junit..*");
+        assertThat(uris(lazy, any)).isEqualTo(uris(eager, any));
+    }
+
+    @Test
+    public void testLookup() throws IOException {
+        ClassResolver eager = ClassResolver.ofClassPath();
+        ClassResolver lazy = createLazyResolver();
+        String classname = "org.junit.runner.JUnitCore";
+        ClassEntry ce = lazy.getClassEntry(classname);
+        assertThat(ce.getURI()).isEqualTo(eager.getClassEntry(classname).getURI());
+        assertThat(ce.getDependentClasses()).isEqualTo(eager.getClassEntry(classname).getDependentClasses());
+        assertThat(lazy.getPackage("org.junit.runner").getPackageName()).isEqualTo("org.junit.runner");
+        assertThat(lazy.getPackage("org.junit.runner").isExpanded()).isTrue();
+        assertThat(lazy.getPackage("org.junit.does.not.exist")).isNull();
+        assertThat(lazy.getClassEntry("org.junit.runner.DoesNotExist")).isNull();
+        assertThat(lazy.getClassEntry(Test.class.getName())).isNotNull();
+    }
+
+    @Test
+    public void testRootAddedAfterExpansion() throws IOException {
+        ClassResolver lazy = new ClassResolver();
+        lazy.setLazy(true);
+        File root = ClassUtils.getRootFile(ClassResolver.class);
+        assertThat(lazy.getClassEntry(ClassResolver.class.getName())).isNull();
+        lazy.add(root);
+        assertThat(lazy.getClassEntry(ClassResolver.class.getName())).isNotNull();
+    }
+
+    private ClassResolver createLazyResolver() throws IOException {
+        ClassResolver resolver = new ClassResolver();
+        resolver.setLazy(true);
+        resolver.setMemoryMappedJars(true);
+        resolver.addClassPath();
+        return resolver;
+    }
+
+    private Set<URI> uris(ClassResolver resolver, NamePattern pattern) {
+        final Set<URI> uris = new TreeSet<URI>();
+        resolver.traverse(pattern, new ClassVisitor() {
+            @Override
+            public void visit(ClassEntry ce) {
+                uris.add(ce.getURI());
+            }
+        });
+        return uris;
+    }
+}
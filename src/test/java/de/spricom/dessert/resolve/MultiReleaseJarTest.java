@@ -0,0 +1,125 @@
+package de.spricom.dessert.resolve;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.classfile.ClassFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class MultiReleaseJarTest {
+    private static final String CLASS_FILE = "de/spricom/dessert/classfile/ClassFile.class";
+    private static final String CONSTANT_POOL = "de/spricom/dessert/classfile/constpool/ConstantPool.class";
+
+    private File jar;
+
+    @Before
+    public void init() throws IOException {
+        jar = createJar(true);
+    }
+
+    @After
+    public void cleanup() {
+        jar.delete();
+    }
+
+    @Test
+    public void testBaseRelease() throws IOException {
+        ClassResolver resolver = createResolver(VersionsHelper.BASE_RELEASE, false);
+        assertThat(resolver.getClassCount()).isEqualTo(1);
+        assertThat(entryName(resolver, ClassFile.class.getName())).isEqualTo(CLASS_FILE);
+    }
+
+    @Test
+    public void testTargetRelease() throws IOException {
+        ClassResolver resolver = createResolver(10, false);
+        assertThat(resolver.getClassCount()).isEqualTo(2);
+        assertThat(entryName(resolver, ClassFile.class.getName())).isEqualTo("META-INF/versions/9/" + CLASS_FILE);
+        assertThat(entryName(resolver, "de.spricom.dessert.classfile.constpool.ConstantPool"))
+                .isEqualTo("META-INF/versions/10/" + CONSTANT_POOL);
+        assertThat(resolver.getClassEntry(ClassFile.class.getName()).getAlternatives()).isNull();
+    }
+
+    @Test
+    public void testHighestRelease() throws IOException {
+        ClassResolver resolver = createResolver(17, true);
+        assertThat(resolver.getClassCount()).isEqualTo(2);
+        ClassEntry ce = resolver.getClassEntry(ClassFile.class.getName());
+        assertThat(((JarClassEntry) ce).getEntryName()).isEqualTo("META-INF/versions/11/" + CLASS_FILE);
+        assertThat(ce.getClassfile().getThisClass()).isEqualTo(ClassFile.class.getName());
+    }
+
+    @Test
+    public void testNoMultiReleaseJar() throws IOException {
+        jar.delete();
+        jar = createJar(false);
+        ClassResolver resolver = createResolver(17, true);
+        assertThat(resolver.getClassCount()).isEqualTo(1);
+        assertThat(entryName(resolver, ClassFile.class.getName())).isEqualTo(CLASS_FILE);
+    }
+
+    private String entryName(ClassResolver resolver, String classname) {
+        return ((JarClassEntry) resolver.getClassEntry(classname)).getEntryName();
+    }
+
+    private ClassResolver createResolver(int targetRelease, boolean memoryMapped) throws IOException {
+        ClassResolver resolver = new ClassResolver();
+        resolver.setTargetRelease(targetRelease);
+        resolver.setMemoryMappedJars(memoryMapped);
+        resolver.add(jar);
+        return resolver;
+    }
+
+    private File createJar(boolean multiRelease) throws IOException {
+        File file = File.createTempFile("dessert-mr", ".jar");
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (multiRelease) {
+            manifest.getMainAttributes().putValue("Multi-Release", "true");
+        }
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(file), manifest);
+        try {
+            addEntry(out, "META-INF/versions/11/" + CLASS_FILE, CLASS_FILE);
+            addEntry(out, CLASS_FILE, CLASS_FILE);
+            addEntry(out, "META-INF/versions/9/" + CLASS_FILE, CLASS_FILE);
+            addEntry(out, "META-INF/versions/10/" + CONSTANT_POOL, CONSTANT_POOL);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private void addEntry(JarOutputStream out, String name, String resource) throws IOException {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(IOUtils.readAll(getClass().getResourceAsStream("/" + resource)));
+        out.closeEntry();
+    }
+}
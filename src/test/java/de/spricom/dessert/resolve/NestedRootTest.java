@@ -0,0 +1,201 @@
+package de.spricom.dessert.resolve;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.classfile.ClassFile;
+import de.spricom.dessert.matching.NamePattern;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class NestedRootTest {
+    private File fatJar;
+    private File junitJar;
+
+    @Before
+    public void init() throws IOException {
+        for (File file : ClassResolver.ofClassPath().getRootJars()) {
+            if (file.getName().startsWith("junit-4.")) {
+                junitJar = file;
+                break;
+            }
+        }
+        assertThat(junitJar).as("No junit-4.* found on java.class.path").isNotNull();
+        fatJar = File.createTempFile("dessert-fat", ".jar");
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(fatJar));
+        try {
+            out.putNextEntry(new ZipEntry("BOOT-INF/"));
+            out.putNextEntry(new ZipEntry("BOOT-INF/classes/"));
+            addEntry(out, "BOOT-INF/classes/de/spricom/dessert/resolve/NestedRootTest.class",
+                    IOUtils.readAll(getClass().getResourceAsStream("NestedRootTest.class")), false);
+            addEntry(out, "BOOT-INF/lib/junit.jar", readFile(junitJar), true);
+            addEntry(out, "BOOT-INF/lib/deflated.jar", createJar(ClassFile.class), false);
+            addEntry(out, "org/springframework/boot/loader/Launcher.class", new byte[0], false);
+        } finally {
+            out.close();
+        }
+    }
+
+    @After
+    public void cleanup() {
+        fatJar.delete();
+    }
+
+    @Test
+    public void testNestedRoots() throws IOException {
+        ClassResolver resolver = new ClassResolver();
+        resolver.addNested(fatJar);
+        assertThat(resolver.getRootFiles()).containsOnly(
+                new File(fatJar, "BOOT-INF/classes/"),
+                new File(fatJar, "BOOT-INF/lib/junit.jar"),
+                new File(fatJar, "BOOT-INF/lib/deflated.jar"));
+        assertThat(resolver.getClassEntry("org.springframework.boot.loader.Launcher")).isNull();
+
+        ClassResolver plain = new ClassResolver();
+        plain.add(junitJar);
+        final int[] count = new int[1];
+        resolver.getRoot(new File(fatJar, "BOOT-INF/lib/junit.jar")).traverse(NamePattern.ANY_NAME, new ClassVisitor() {
+            @Override
+            public void visit(ClassEntry ce) {
+                count[0]++;
+            }
+        });
+        assertThat(count[0]).isEqualTo(plain.getClassCount());
+        ClassEntry ce = resolver.getClassEntry("org.junit.runner.JUnitCore");
+        assertThat(ce.getDependentClasses())
+                .isEqualTo(plain.getClassEntry("org.junit.runner.JUnitCore").getDependentClasses());
+        assertThat(ce.getURI().toString()).isEqualTo("jar:" + fatJar.toURI().toASCIIString()
+                + "!/BOOT-INF/lib/junit.jar!/org/junit/runner/JUnitCore.class");
+
+        ClassEntry me = resolver.getClassEntry(getClass().getName());
+        assertThat(me.getClassfile().getThisClass()).isEqualTo(getClass().getName());
+        assertThat(me.getURI().toString()).isEqualTo("jar:" + fatJar.toURI().toASCIIString()
+                + "!/BOOT-INF/classes/de/spricom/dessert/resolve/NestedRootTest.class");
+
+        ClassEntry cf = resolver.getClassEntry(ClassFile.class.getName());
+        assertThat(cf.getDependentClasses()).contains("java.io.DataInputStream");
+        assertThat(cf.getPackage().getRoot().getResourceAsStream("/META-INF/MANIFEST.MF")).isNull();
+        assertThat(IOUtils.readAll(cf.getPackage().getRoot()
+                .getResourceAsStream("de/spricom/dessert/classfile/ClassFile.class")))
+                .isEqualTo(IOUtils.readAll(ClassFile.class.getResourceAsStream("ClassFile.class")));
+    }
+
+    @Test
+    public void testDetectFatJar() throws IOException {
+        ClassResolver plain = new ClassResolver();
+        plain.add(fatJar);
+        assertThat(plain.getRootFiles()).containsOnly(fatJar);
+
+        ClassResolver byFile = new ClassResolver();
+        byFile.setFatJarDetection(true);
+        byFile.add(fatJar);
+        assertThat(byFile.getRootFiles()).containsOnly(
+                new File(fatJar, "BOOT-INF/classes/"),
+                new File(fatJar, "BOOT-INF/lib/junit.jar"),
+                new File(fatJar, "BOOT-INF/lib/deflated.jar"));
+
+        ClassResolver byPath = new ClassResolver();
+        byPath.setFatJarDetection(true);
+        byPath.add(fatJar.getPath());
+        assertThat(byPath.getRootFiles()).isEqualTo(byFile.getRootFiles());
+        assertThat(byPath.getClassEntry(getClass().getName())).isNotNull();
+    }
+
+    @Test
+    public void testNestedMultiReleaseJar() throws IOException {
+        File outer = File.createTempFile("dessert-mr", ".war");
+        try {
+            ZipOutputStream out = new ZipOutputStream(new FileOutputStream(outer));
+            try {
+                addEntry(out, "WEB-INF/lib/mr.jar", createMultiReleaseJar(ClassFile.class), true);
+            } finally {
+                out.close();
+            }
+            ClassResolver base = new ClassResolver();
+            base.add(outer);
+            assertThat(base.getClassEntry(ClassFile.class.getName()).getURI().toString())
+                    .endsWith("mr.jar!/de/spricom/dessert/classfile/ClassFile.class");
+
+            ClassResolver resolver = new ClassResolver();
+            resolver.setTargetRelease(11);
+            resolver.add(outer);
+            assertThat(resolver.getClassCount()).isEqualTo(1);
+            assertThat(resolver.getClassEntry(ClassFile.class.getName()).getURI().toString())
+                    .endsWith("mr.jar!/META-INF/versions/9/de/spricom/dessert/classfile/ClassFile.class");
+        } finally {
+            outer.delete();
+        }
+    }
+
+    private byte[] createMultiReleaseJar(Class<?> clazz) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ZipOutputStream out = new ZipOutputStream(bytes);
+        try {
+            addEntry(out, "META-INF/MANIFEST.MF",
+                    "Manifest-Version: 1.0\r\nMulti-Release: true\r\n\r\n".getBytes("UTF-8"), false);
+            String name = clazz.getName().replace('.', '/') + ".class";
+            byte[] content = IOUtils.readAll(clazz.getResourceAsStream("/" + name));
+            addEntry(out, name, content, false);
+            addEntry(out, "META-INF/versions/9/" + name, content, false);
+        } finally {
+            out.close();
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] createJar(Class<?> clazz) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ZipOutputStream out = new ZipOutputStream(bytes);
+        try {
+            String name = clazz.getName().replace('.', '/') + ".class";
+            addEntry(out, name, IOUtils.readAll(clazz.getResourceAsStream("/" + name)), false);
+        } finally {
+            out.close();
+        }
+        return bytes.toByteArray();
+    }
+
+    private void addEntry(ZipOutputStream out, String name, byte[] content, boolean stored) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        if (stored) {
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(content.length);
+            entry.setCompressedSize(content.length);
+            entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(content);
+        out.closeEntry();
+    }
+
+    private byte[] readFile(File file) throws IOException {
+        return IOUtils.readAll(new FileInputStream(file));
+    }
+}
@@ -0,0 +1,145 @@
+package de.spricom.dessert.resolve;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Map;
+import java.util.Set;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class RootIndexTest {
+    private File tmpDir;
+    private File jar;
+
+    @Before
+    public void init() throws IOException {
+        tmpDir = File.createTempFile("dessert-index", "");
+        assertThat(tmpDir.delete()).isTrue();
+        assertThat(tmpDir.mkdir()).isTrue();
+        jar = new File(tmpDir, "junit.jar");
+        copy(findJunitJar(), jar);
+    }
+
+    @After
+    public void cleanup() {
+        for (File file : tmpDir.listFiles()) {
+            file.delete();
+        }
+        tmpDir.delete();
+    }
+
+    @Test
+    public void testRestoreFromIndex() throws IOException {
+        ClassResolver scanned = createResolver(ClassResolver.IndexValidation.TIMESTAMP);
+        scanned.saveIndex();
+        RootIndex index = new RootIndex(tmpDir, jar, ClassResolver.IndexValidation.TIMESTAMP);
+        assertThat(index.getIndexFile().isFile()).isTrue();
+
+        ClassResolver restored = createResolver(ClassResolver.IndexValidation.TIMESTAMP);
+        assertThat(restored.getClassCount()).isEqualTo(scanned.getClassCount());
+        assertThat(restored.getPackageCount()).isEqualTo(scanned.getPackageCount());
+        ClassEntry ce = restored.getClassEntry("org.junit.runner.JUnitCore");
+        assertThat(ce.getDependentClasses()).isEqualTo(ce.getClassfile().getDependentClasses());
+        assertThat(ce.getURI()).isEqualTo(scanned.getClassEntry("org.junit.runner.JUnitCore").getURI());
+    }
+
+    @Test
+    public void testTimestampValidation() throws IOException {
+        createResolver(ClassResolver.IndexValidation.TIMESTAMP).saveIndex();
+        RootIndex index = new RootIndex(tmpDir, jar, ClassResolver.IndexValidation.TIMESTAMP);
+        assertThat(index.load()).isNotNull();
+
+        assertThat(jar.setLastModified(jar.lastModified() - 60000)).isTrue();
+        assertThat(index.load()).isNull();
+    }
+
+    @Test
+    public void testChecksumValidation() throws IOException {
+        createResolver(ClassResolver.IndexValidation.CHECKSUM).saveIndex();
+        assertThat(jar.setLastModified(jar.lastModified() - 60000)).isTrue();
+        RootIndex index = new RootIndex(tmpDir, jar, ClassResolver.IndexValidation.CHECKSUM);
+        Map<String, Set<String>> entries = index.load();
+        assertThat(entries).isNotNull();
+        assertThat(entries.get("org/junit/Test.class")).contains("java.lang.annotation.Annotation");
+    }
+
+    @Test
+    public void testTimestampIndexHasNoChecksum() throws IOException {
+        createResolver(ClassResolver.IndexValidation.TIMESTAMP).saveIndex();
+        assertThat(new RootIndex(tmpDir, jar, ClassResolver.IndexValidation.TIMESTAMP).load()).isNotNull();
+        assertThat(new RootIndex(tmpDir, jar, ClassResolver.IndexValidation.CHECKSUM).load()).isNull();
+    }
+
+    @Test
+    public void testCorruptIndex() throws IOException {
+        createResolver(ClassResolver.IndexValidation.TIMESTAMP).saveIndex();
+        RootIndex index = new RootIndex(tmpDir, jar, ClassResolver.IndexValidation.TIMESTAMP);
+        RandomAccessFile raf = new RandomAccessFile(index.getIndexFile(), "rw");
+        try {
+            raf.setLength(raf.length() / 2);
+        } finally {
+            raf.close();
+        }
+        assertThat(index.load()).isNull();
+        assertThat(createResolver(ClassResolver.IndexValidation.TIMESTAMP)
+                .getClassEntry("org.junit.Test")).isNotNull();
+    }
+
+    private ClassResolver createResolver(ClassResolver.IndexValidation validation) throws IOException {
+        ClassResolver resolver = new ClassResolver();
+        resolver.setIndexDirectory(tmpDir);
+        resolver.setIndexValidation(validation);
+        resolver.add(jar);
+        return resolver;
+    }
+
+    private File findJunitJar() throws IOException {
+        for (File file : ClassResolver.ofClassPath().getRootJars()) {
+            if (file.getName().startsWith("junit-4.")) {
+                return file;
+            }
+        }
+        throw new AssertionError("No junit-4.* found on java.class.path");
+    }
+
+    private void copy(File src, File dest) throws IOException {
+        InputStream in = new FileInputStream(src);
+        try {
+            OutputStream out = new FileOutputStream(dest);
+            try {
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, n);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -66,6 +66,13 @@ public class TraversalTest implements ClassVisitor {
     }
 
 
+    @Test
+    public void testWildcardBeforeRepeatedMatch() {
+        root.add("de.spricom.sub.Deep");
+        traverse("..s*.*");
+        assertThat(visited).containsOnly("de.spricom.sub.Deep");
+    }
+
     @Test
     public void testRoot() {
         traverse("*");
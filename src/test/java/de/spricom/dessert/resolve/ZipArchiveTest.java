@@ -0,0 +1,143 @@
+package de.spricom.dessert.resolve;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class ZipArchiveTest {
+    private File jar;
+
+    @Before
+    public void init() throws IOException {
+        for (File file : ClassResolver.ofClassPath().getRootJars()) {
+            if (file.getName().startsWith("junit-4.")) {
+                jar = file;
+                break;
+            }
+        }
+        assertThat(jar).as("No junit-4.* found on java.class.path").isNotNull();
+    }
+
+    @Test
+    public void testSameContentAsJarFile() throws IOException {
+        ZipArchive zip = ZipArchive.open(jar);
+        JarFile jarFile = new JarFile(jar);
+        try {
+            assertThat(zip.size()).isEqualTo(jarFile.size());
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                int index = zip.indexOf(entry.getName());
+                assertThat(index).as(entry.getName()).isNotEqualTo(-1);
+                assertThat(zip.isDirectory(index)).isEqualTo(entry.isDirectory());
+                byte[] expected = IOUtils.readAll(jarFile.getInputStream(entry));
+                assertThat(zip.read(index)).as(entry.getName()).isEqualTo(expected);
+                assertThat(IOUtils.readAll(zip.open(index))).as(entry.getName()).isEqualTo(expected);
+            }
+        } finally {
+            jarFile.close();
+        }
+        assertThat(zip.indexOf("does/not/exist.xy")).isEqualTo(-1);
+    }
+
+    @Test(expected = IOException.class)
+    public void testNoZipArchive() throws IOException {
+        File file = File.createTempFile("dessert-zip", ".jar");
+        try {
+            ZipArchive.open(file);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testUnsupportedCompressionMethod() throws IOException {
+        File file = File.createTempFile("dessert-zip", ".jar");
+        try {
+            ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
+            try {
+                out.putNextEntry(new ZipEntry("a/B.class"));
+                out.write(new byte[]{1, 2, 3});
+                out.closeEntry();
+            } finally {
+                out.close();
+            }
+            patchCentralDirectoryMethod(file, 12);
+            try {
+                ZipArchive.open(file);
+                fail("IOException expected");
+            } catch (IOException ex) {
+                assertThat(ex.getMessage()).contains("Unsupported compression method 12");
+            }
+            JarRoot root = new JarRoot(file, null, true, VersionsHelper.BASE_RELEASE);
+            assertThat(root.getZipArchive()).isNull();
+            assertThat(root.getZipArchive()).isNull();
+        } finally {
+            file.delete();
+        }
+    }
+
+    private void patchCentralDirectoryMethod(File file, int method) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            byte[] content = new byte[(int) raf.length()];
+            raf.readFully(content);
+            for (int pos = 0; pos + 4 <= content.length; pos++) {
+                if (content[pos] == 'P' && content[pos + 1] == 'K' && content[pos + 2] == 1 && content[pos + 3] == 2) {
+                    raf.seek(pos + 10);
+                    raf.write(method);
+                    raf.write(0);
+                }
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    @Test
+    public void testMemoryMappedResolver() throws IOException {
+        ClassResolver mapped = new ClassResolver();
+        mapped.setMemoryMappedJars(true);
+        mapped.add(jar);
+        ClassResolver plain = new ClassResolver();
+        plain.add(jar);
+        assertThat(mapped.getClassCount()).isEqualTo(plain.getClassCount());
+        ClassEntry ce = mapped.getClassEntry("org.junit.runner.JUnitCore");
+        assertThat(ce.getDependentClasses())
+                .isEqualTo(plain.getClassEntry("org.junit.runner.JUnitCore").getDependentClasses());
+        assertThat(ce.getClassfile().getThisClass()).isEqualTo("org.junit.runner.JUnitCore");
+        assertThat(ce.getURI()).isEqualTo(plain.getClassEntry("org.junit.runner.JUnitCore").getURI());
+    }
+}
@@ -0,0 +1,127 @@
+package de.spricom.dessert.slicing;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.resolve.ClassResolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ClasspathConcurrencyTest {
+    private static final int THREADS = 8;
+
+    @Test
+    public void testSharedClasspath() throws Exception {
+        final Classpath cp = new Classpath(ClassResolver.ofClassPath());
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Map<String, Clazz>>> results = new ArrayList<Future<Map<String, Clazz>>>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(new Callable<Map<String, Clazz>>() {
+                    @Override
+                    public Map<String, Clazz> call() throws Exception {
+                        start.await();
+                        Map<String, Clazz> clazzes = new HashMap<String, Clazz>();
+                        for (Clazz clazz : cp.packageTreeOf("de.spricom.dessert").getClazzes()) {
+                            clazzes.put(clazz.getName(), clazz);
+                            for (Clazz dependency : clazz.getDependencies().getClazzes()) {
+                                clazzes.put(dependency.getName(), dependency);
+                            }
+                            clazz.getSuperclass();
+                            clazz.getImplementedInterfaces();
+                        }
+                        clazzes.put(Classpath.class.getName(), cp.asClazz(Classpath.class));
+                        return clazzes;
+                    }
+                }));
+            }
+            start.countDown();
+            Map<String, Clazz> expected = results.get(0).get();
+            assertThat(expected.size()).isGreaterThan(100);
+            for (Future<Map<String, Clazz>> result : results) {
+                Map<String, Clazz> actual = result.get();
+                assertThat(actual.keySet()).isEqualTo(expected.keySet());
+                for (Map.Entry<String, Clazz> entry : actual.entrySet()) {
+                    assertThat(entry.getValue()).isSameAs(expected.get(entry.getKey()));
+                }
+            }
+            for (int id = 0; id < cp.getClazzCount(); id++) {
+                Clazz clazz = cp.clazzById(id);
+                if (clazz != null) {
+                    assertThat(clazz.getId()).isEqualTo(id);
+                    assertThat(cp.asClazz(clazz.getName()).getAlternatives()).contains(clazz);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentResolveOfSameSlice() throws Exception {
+        Classpath cp = new Classpath(ClassResolver.ofClassPath());
+        final Slice slice = cp.packageTreeOf("org.junit");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Set<Clazz>>> results = new ArrayList<Future<Set<Clazz>>>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(new Callable<Set<Clazz>>() {
+                    @Override
+                    public Set<Clazz> call() throws IOException {
+                        return slice.getClazzes();
+                    }
+                }));
+            }
+            Set<Clazz> expected = results.get(0).get();
+            assertThat(expected).isNotEmpty();
+            for (Future<Set<Clazz>> result : results) {
+                assertThat(result.get()).isEqualTo(expected);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPreload() throws Exception {
+        Classpath cp = new Classpath(ClassResolver.ofClassPath());
+        Slice slice = cp.packageTreeOf("org.junit");
+        cp.preload(slice, THREADS);
+
+        Classpath sequential = new Classpath(ClassResolver.ofClassPath());
+        for (Clazz clazz : slice.getClazzes()) {
+            Set<String> expected = new TreeSet<String>();
+            for (Clazz dependency : sequential.asClazz(clazz.getName()).getDependencies().getClazzes()) {
+                expected.add(dependency.getName());
+            }
+            Set<String> actual = new TreeSet<String>();
+            for (Clazz dependency : clazz.getDependencies().getClazzes()) {
+                actual.add(dependency.getName());
+            }
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+}
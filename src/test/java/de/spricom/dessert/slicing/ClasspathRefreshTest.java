@@ -0,0 +1,161 @@
+package de.spricom.dessert.slicing;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import de.spricom.dessert.classfile.ClassFile;
+import de.spricom.dessert.resolve.ClassResolver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ClasspathRefreshTest {
+    private static final String UTIL = "de.spricom.dessert.util.";
+
+    private File tmpDir;
+    private File utilDir;
+    private ClassResolver resolver;
+    private Classpath cp;
+
+    @Before
+    public void init() throws IOException {
+        tmpDir = File.createTempFile("dessert-refresh", "");
+        assertThat(tmpDir.delete()).isTrue();
+        utilDir = new File(tmpDir, "de/spricom/dessert/util");
+        assertThat(utilDir.mkdirs()).isTrue();
+        assertThat(new File(tmpDir, "de/spricom/dessert/matching").mkdirs()).isTrue();
+        copy("de.spricom.dessert.util.Predicate");
+        copy("de.spricom.dessert.util.Predicates");
+        copy("de.spricom.dessert.util.Predicates$1");
+        copy("de.spricom.dessert.matching.NamePattern");
+        resolver = new ClassResolver();
+        resolver.add(tmpDir);
+        cp = new Classpath(resolver);
+    }
+
+    @After
+    public void cleanup() {
+        delete(tmpDir);
+    }
+
+    @Test
+    public void testUnchanged() {
+        cp.asClazz(UTIL + "Predicates").getDependencies();
+        assertThat(cp.refresh()).isEmpty();
+    }
+
+    @Test
+    public void testModified() throws IOException {
+        Clazz predicates = cp.asClazz(UTIL + "Predicates");
+        Clazz predicate = cp.asClazz(UTIL + "Predicate");
+        ClassFile classFile = predicates.getClassFile();
+        assertThat(predicates.getDependencies().contains(predicate)).isTrue();
+
+        File file = copy(UTIL + "Predicates");
+        touch(file);
+        assertThat(cp.refresh()).containsOnly(UTIL + "Predicates");
+
+        assertThat(cp.asClazz(UTIL + "Predicates")).isSameAs(predicates);
+        assertThat(predicates.getClassFile()).isNotSameAs(classFile);
+        assertThat(predicates.getDependencies().contains(predicate)).isTrue();
+        assertThat(predicate.getUsers().contains(predicates)).isTrue();
+    }
+
+    @Test
+    public void testAdded() throws IOException {
+        Clazz loaded = cp.asClazz(UTIL + "Sets");
+        assertThat(cp.contains(loaded)).isFalse();
+
+        copy(UTIL + "Sets");
+        touch(utilDir);
+        assertThat(cp.refresh()).containsOnly(UTIL + "Sets");
+
+        Clazz sets = cp.asClazz(UTIL + "Sets");
+        assertThat(sets).isNotSameAs(loaded);
+        assertThat(sets.getRootFile()).isEqualTo(tmpDir);
+        assertThat(cp.contains(sets)).isTrue();
+        assertThat(cp.getClazzes()).contains(sets);
+    }
+
+    @Test
+    public void testRemoved() throws IOException {
+        Clazz predicate = cp.asClazz(UTIL + "Predicate");
+        Clazz anonymous = cp.asClazz(UTIL + "Predicates$1");
+        assertThat(anonymous.getDependencies().contains(predicate)).isTrue();
+        assertThat(predicate.getUsers().contains(anonymous)).isTrue();
+
+        assertThat(new File(utilDir, "Predicates$1.class").delete()).isTrue();
+        touch(utilDir);
+        assertThat(cp.refresh()).containsOnly(UTIL + "Predicates$1");
+
+        assertThat(resolver.getClassEntry(UTIL + "Predicates$1")).isNull();
+        assertThat(predicate.getUsers().contains(anonymous)).isFalse();
+        assertThat(cp.asClazz(UTIL + "Predicates$1").getRootFile()).isNotEqualTo(tmpDir);
+    }
+
+    @Test
+    public void testRemovedPackage() throws IOException {
+        delete(new File(tmpDir, "de/spricom/dessert/matching"));
+        touch(new File(tmpDir, "de/spricom/dessert"));
+        assertThat(cp.refresh()).containsOnly("de.spricom.dessert.matching.NamePattern");
+        assertThat(resolver.getPackage("de.spricom.dessert.matching")).isNull();
+        assertThat(resolver.getClassEntry("de.spricom.dessert.matching.NamePattern")).isNull();
+        assertThat(resolver.getClassCount()).isEqualTo(3);
+    }
+
+    private void touch(File file) {
+        assertThat(file.setLastModified(file.lastModified() + 10000)).isTrue();
+    }
+
+    private File copy(String classname) throws IOException {
+        String path = classname.replace('.', '/') + ".class";
+        File dest = new File(tmpDir, path);
+        InputStream in = getClass().getResourceAsStream("/" + path);
+        try {
+            OutputStream out = new FileOutputStream(dest);
+            try {
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, n);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+        return dest;
+    }
+
+    private void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
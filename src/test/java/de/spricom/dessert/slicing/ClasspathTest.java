@@ -63,8 +63,8 @@ public class ClasspathTest {
      */
     @Test
     public void testPackageTreeForSubpackages() {
-        int expectedNumberOfClasses = 46;
-        int expectedNumberOfTestClasses = 14;
+        int expectedNumberOfClasses = 48;
+        int expectedNumberOfTestClasses = 16;
         Slice slice = cp.packageTreeOf(ClassFile.class);
         assertThat(slice.getClazzes()).hasSize(expectedNumberOfClasses + expectedNumberOfTestClasses);
     }
@@ -95,4 +95,20 @@ public class ClasspathTest {
         assertThat(util.getClazzes().size()).isGreaterThan(100);
         assertThat(io.getClazzes().size()).isGreaterThan(100);
     }
+
+    @Test
+    public void testRootContains() {
+        Root root = cp.rootOf(Slice.class);
+        Root junit = cp.rootOf(Test.class);
+        assertThat(root.contains(cp.asClazz(Slice.class))).isTrue();
+        assertThat(root.contains(cp.asClazz(Test.class))).isFalse();
+        assertThat(junit.contains(cp.asClazz(Test.class))).isTrue();
+        assertThat(root.contains(cp.asClazz("de.spricom.dessert.NoSuchClass"))).isFalse();
+        assertThat(cp.contains(cp.asClazz(Test.class))).isTrue();
+        assertThat(cp.contains(cp.asClazz("de.spricom.dessert.NoSuchClass"))).isFalse();
+
+        Classpath other = new Classpath();
+        assertThat(root.contains(other.asClazz(Slice.class))).isTrue();
+        assertThat(root.contains(other.asClazz(Test.class))).isFalse();
+    }
 }
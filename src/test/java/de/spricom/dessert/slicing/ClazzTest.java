@@ -20,6 +20,8 @@ package de.spricom.dessert.slicing;
  * #L%
  */
 
+import de.spricom.dessert.classfile.ClassFile;
+import de.spricom.dessert.partitioning.ClazzPredicates;
 import de.spricom.dessert.resolve.ClassResolver;
 import de.spricom.dessert.resolve.FakeClassEntry;
 import de.spricom.dessert.resolve.FakeRoot;
@@ -28,9 +30,12 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Modifier;
 import java.net.MalformedURLException;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.TreeSet;
 
 import static org.fest.assertions.Assertions.assertThat;
 
@@ -38,6 +43,35 @@ public class ClazzTest {
 
     private final Classpath sc = new Classpath();
 
+    @Test
+    public void testCompact() throws IOException {
+        Classpath compact = new Classpath(ClassResolver.ofClassPath());
+        compact.setCompact(true);
+        Slice slice = compact.packageTreeOf("de.spricom.dessert.slicing");
+        for (Clazz clazz : slice.getClazzes()) {
+            Clazz expected = sc.asClazz(clazz.getName());
+            assertThat(names(clazz.getDependencies())).isEqualTo(names(expected.getDependencies()));
+            assertThat(clazz.getAccessFlags()).isEqualTo(expected.getClassFile().getAccessFlags());
+            assertThat(clazz.getSuperclass().getName()).isEqualTo(expected.getSuperclass().getName());
+            assertThat(names(clazz.getImplementedInterfaces())).isEqualTo(names(expected.getImplementedInterfaces()));
+            assertThat(clazz.getClassFile().getThisClass()).isEqualTo(clazz.getName());
+        }
+        assertThat(slice.slice(ClazzPredicates.INTERFACE).getClazzes())
+                .hasSize(sc.packageTreeOf("de.spricom.dessert.slicing").slice(ClazzPredicates.INTERFACE).getClazzes().size());
+    }
+
+    private Set<String> names(Slice slice) {
+        return names(slice.getClazzes());
+    }
+
+    private Set<String> names(Collection<Clazz> clazzes) {
+        Set<String> names = new TreeSet<String>();
+        for (Clazz clazz : clazzes) {
+            names.add(clazz.getName());
+        }
+        return names;
+    }
+
     @Test
     public void testThisClass() throws MalformedURLException {
         Slice slice = sc.sliceOf(ClazzTest.class.getName());
@@ -108,4 +142,21 @@ public class ClazzTest {
             assertThat(clazz.getName()).isEqualTo(clazz.getClassImpl().getName());
         }
     }
+
+    @Test
+    public void testObject() {
+        Clazz object = sc.asClazz(Object.class.getName());
+        assertThat(object.getSuperclass()).isNull();
+        assertThat(object.getImplementedInterfaces()).isEmpty();
+        assertThat(object.getAccessFlags() & ClassFile.ACC_PUBLIC).isEqualTo(ClassFile.ACC_PUBLIC);
+    }
+
+    @Test
+    public void testPublicJdkClasses() {
+        Set<Clazz> publicClasses = sc.packageOf(Object.class).slice(ClazzPredicates.PUBLIC).getClazzes();
+        assertThat(publicClasses).contains(sc.asClazz(Object.class.getName()), sc.asClazz(String.class.getName()));
+        for (Clazz clazz : publicClasses) {
+            assertThat(Modifier.isPublic(clazz.getAccessFlags())).isTrue();
+        }
+    }
 }
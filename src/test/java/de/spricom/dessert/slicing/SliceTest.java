@@ -25,6 +25,13 @@ import de.spricom.dessert.util.Predicates;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
 import static org.fest.assertions.Assertions.assertThat;
 
 public class SliceTest {
@@ -54,6 +61,63 @@ public class SliceTest {
         assertThat(nonPublics.plus(publics.getClazzes()).getClazzes()).isEqualTo(slicing.getClazzes());
     }
 
+    @Test
+    public void testUnion() {
+        Clazz string = cp.asClazz(String.class);
+        Slice union = cp.slice("..slicing.*Slice").plus(cp.slice("..slicing.Clazz*"), string);
+        Set<Clazz> clazzes = union.getClazzes();
+        assertThat(union.getClazzes()).isSameAs(clazzes);
+        Set<Clazz> expected = new HashSet<Clazz>();
+        expected.addAll(cp.slice("..slicing.*Slice").getClazzes());
+        expected.addAll(cp.slice("..slicing.Clazz*").getClazzes());
+        expected.add(string);
+        assertThat(clazzes).isEqualTo(expected);
+        assertThat(clazzes.contains(string)).isTrue();
+        assertThat(clazzes.contains(cp.asClazz(Integer.class))).isFalse();
+    }
+
+    @Test
+    public void testTransitiveDependencies() {
+        Set<Clazz> expected = new HashSet<Clazz>();
+        LinkedList<Clazz> queue = new LinkedList<Clazz>(slicing.getClazzes());
+        while (!queue.isEmpty()) {
+            for (Clazz dependency : queue.removeFirst().getDependencies().getClazzes()) {
+                if (expected.add(dependency)) {
+                    queue.add(dependency);
+                }
+            }
+        }
+        assertThat(slicing.getTransitiveDependencies().getClazzes()).isEqualTo(expected);
+        assertThat(slicing.getTransitiveDependencies().getClazzes()).isEqualTo(expected);
+
+        Clazz slice = cp.asClazz(Slice.class);
+        assertThat(slice.getTransitiveDependencies().contains(slice)).isTrue();
+        assertThat(slice.getTransitiveDependencies().getClazzes()).isSameAs(
+                cp.asClazz(Clazz.class).getTransitiveDependencies().getClazzes());
+    }
+
+    @Test
+    public void testReaches() {
+        Slice util = cp.packageOf("de.spricom.dessert.util");
+        Slice assertions = cp.packageOf("de.spricom.dessert.assertions");
+        assertThat(slicing.reaches(util)).isTrue();
+        assertThat(slicing.uses(cp.packageOf("de.spricom.dessert.classfile.attribute"))).isFalse();
+        assertThat(slicing.reaches(cp.packageOf("de.spricom.dessert.classfile.attribute"))).isTrue();
+        assertThat(slicing.reaches(assertions)).isFalse();
+        assertThat(util.reaches(slicing)).isFalse();
+    }
+
+    @Test
+    public void testReachesWithMixedClasspaths() {
+        Classpath other = new Classpath();
+        Slice target = other.packageOf("de.spricom.dessert.util");
+        List<Clazz> clazzes = Arrays.asList(other.asClazz(Slice.class), cp.asClazz(Predicates.class));
+        assertThat(DependencyClosure.reaches(clazzes, target)).isTrue();
+        Collections.reverse(clazzes);
+        assertThat(DependencyClosure.reaches(clazzes, target)).isTrue();
+        assertThat(DependencyClosure.reaches(Arrays.asList(cp.asClazz(Predicates.class)), target)).isFalse();
+    }
+
     @Test
     public void testMinus() {
         assertThat(slicing.minus(publics).getClazzes()).isEqualTo(nonPublics.getClazzes());
@@ -67,4 +131,23 @@ public class SliceTest {
         assertThat(publics.slice(nonPublics).getClazzes()).isEmpty();
         assertThat(publics.slice(nonPublics.getClazzes()).getClazzes()).isEmpty();
     }
+
+    @Test
+    public void testUsers() {
+        for (Clazz clazz : slicing.getClazzes()) {
+            for (Clazz dependency : clazz.getDependencies().getClazzes()) {
+                assertThat(dependency.getUsers().contains(clazz)).isTrue();
+            }
+        }
+        Clazz slice = cp.asClazz(Slice.class);
+        Slice dessert = cp.packageTreeOf("de.spricom.dessert");
+        Set<Clazz> expected = new HashSet<Clazz>();
+        for (Clazz clazz : dessert.getClazzes()) {
+            if (clazz.getDependencies().contains(slice)) {
+                expected.add(clazz);
+            }
+        }
+        assertThat(expected).contains(cp.asClazz(AbstractSlice.class));
+        assertThat(slice.getUsers().slice(dessert).getClazzes()).isEqualTo(expected);
+    }
 }
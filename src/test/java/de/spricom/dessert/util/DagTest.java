@@ -22,6 +22,8 @@ package de.spricom.dessert.util;
 
 import org.junit.Test;
 
+import java.util.*;
+
 import static org.fest.assertions.Assertions.assertThat;
 
 public class DagTest {
@@ -93,4 +95,52 @@ public class DagTest {
         assertThat(dag.isCycleFree()).isFalse();
         assertThat(dag.cycle()).containsExactly(1, 1);
     }
+
+    @Test
+    public void cycleGroups() {
+        Dag<Integer> dag = new Dag<Integer>();
+        dag.addEdge(1, 2);
+        dag.addEdge(2, 3);
+        dag.addEdge(3, 1);
+        dag.addEdge(3, 4);
+        dag.addEdge(4, 5);
+        dag.addEdge(5, 4);
+        dag.addEdge(5, 6);
+        dag.addEdge(7, 7);
+        List<List<Integer>> groups = dag.cycleGroups();
+        assertThat(groups).hasSize(3);
+        Set<Set<Integer>> sets = new HashSet<Set<Integer>>();
+        for (List<Integer> group : groups) {
+            sets.add(new HashSet<Integer>(group));
+        }
+        assertThat(sets).containsOnly(
+                new HashSet<Integer>(Arrays.asList(1, 2, 3)),
+                new HashSet<Integer>(Arrays.asList(4, 5)),
+                Collections.singleton(7));
+    }
+
+    @Test
+    public void noCycleGroups() {
+        Dag<Integer> dag = new Dag<Integer>();
+        dag.addEdge(1, 2);
+        dag.addEdge(2, 3);
+        dag.addEdge(1, 3);
+        assertThat(dag.cycleGroups()).isEmpty();
+    }
+
+    @Test
+    public void deepGraph() {
+        Dag<Integer> dag = new Dag<Integer>();
+        int depth = 100000;
+        for (int i = 0; i < depth; i++) {
+            dag.addEdge(i, i + 1);
+        }
+        assertThat(dag.isCycleFree()).isTrue();
+        assertThat(dag.cycleGroups()).isEmpty();
+        dag.addEdge(depth, 0);
+        assertThat(dag.isCycleFree()).isFalse();
+        assertThat(dag.cycle()).hasSize(depth + 2);
+        assertThat(dag.cycleGroups()).hasSize(1);
+        assertThat(dag.cycleGroups().get(0)).hasSize(depth + 1);
+    }
 }
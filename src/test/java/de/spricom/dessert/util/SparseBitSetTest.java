@@ -0,0 +1,148 @@
+package de.spricom.dessert.util;
+
+/*-
+ * #%L
+ * Dessert Dependency Assertion Library for Java
+ * %%
+ * Copyright (C) 2017 - 2021 Hans Jörg Heßmann
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class SparseBitSetTest {
+    private final Random random = new Random(4711);
+
+    @Test
+    public void testEmpty() {
+        SparseBitSet set = new SparseBitSet();
+        assertThat(set.isEmpty()).isTrue();
+        assertThat(set.cardinality()).isEqualTo(0);
+        assertThat(set.nextSetBit(0)).isEqualTo(-1);
+        assertThat(set.get(0)).isFalse();
+        assertThat(set).isEqualTo(SparseBitSet.EMPTY);
+    }
+
+    @Test
+    public void testSetAndGet() {
+        SparseBitSet set = new SparseBitSet();
+        set.set(1000);
+        set.set(3);
+        set.set(64);
+        set.set(63);
+        assertThat(set.cardinality()).isEqualTo(4);
+        assertThat(set.get(63)).isTrue();
+        assertThat(set.get(65)).isFalse();
+        assertThat(set.toString()).isEqualTo("{3, 63, 64, 1000}");
+    }
+
+    @Test
+    public void testOf() {
+        SparseBitSet set = SparseBitSet.of(new int[]{1000, 3, 64, 63, 3});
+        assertThat(set.toString()).isEqualTo("{3, 63, 64, 1000}");
+        SparseBitSet expected = new SparseBitSet();
+        expected.set(3);
+        expected.set(63);
+        expected.set(64);
+        expected.set(1000);
+        assertThat(set).isEqualTo(expected);
+        assertThat(SparseBitSet.of(new int[0])).isSameAs(SparseBitSet.EMPTY);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testEmptyIsImmutable() {
+        SparseBitSet.EMPTY.set(1);
+    }
+
+    @Test
+    public void testResultsAreNotOperands() {
+        SparseBitSet set = SparseBitSet.of(new int[]{3, 1000});
+        SparseBitSet or = set.or(SparseBitSet.EMPTY);
+        SparseBitSet andNot = set.andNot(SparseBitSet.EMPTY);
+        SparseBitSet union = SparseBitSet.union(Arrays.asList(SparseBitSet.EMPTY, set));
+        assertThat(or).isNotSameAs(set).isEqualTo(set);
+        assertThat(SparseBitSet.EMPTY.or(set)).isNotSameAs(set).isEqualTo(set);
+        assertThat(andNot).isNotSameAs(set).isEqualTo(set);
+        assertThat(union).isNotSameAs(set).isEqualTo(set);
+        or.set(5);
+        andNot.set(5);
+        assertThat(set.get(5)).isFalse();
+    }
+
+    @Test
+    public void testOperationsAgainstBitSet() {
+        for (int i = 0; i < 100; i++) {
+            BitSet a = randomBitSet();
+            BitSet b = randomBitSet();
+            SparseBitSet sa = toSparse(a);
+            SparseBitSet sb = toSparse(b);
+            assertThat(sa.cardinality()).isEqualTo(a.cardinality());
+
+            BitSet or = (BitSet) a.clone();
+            or.or(b);
+            assertThat(sa.or(sb)).isEqualTo(toSparse(or));
+            assertThat(SparseBitSet.union(Arrays.asList(sa, sb))).isEqualTo(toSparse(or));
+
+            BitSet and = (BitSet) a.clone();
+            and.and(b);
+            assertThat(sa.and(sb)).isEqualTo(toSparse(and));
+            assertThat(sa.intersects(sb)).isEqualTo(a.intersects(b));
+
+            BitSet andNot = (BitSet) a.clone();
+            andNot.andNot(b);
+            assertThat(sa.andNot(sb)).isEqualTo(toSparse(andNot));
+        }
+    }
+
+    private BitSet randomBitSet() {
+        BitSet bits = new BitSet();
+        int count = random.nextInt(200);
+        int range = 1 + random.nextInt(10000);
+        for (int i = 0; i < count; i++) {
+            bits.set(random.nextInt(range));
+        }
+        return bits;
+    }
+
+    private SparseBitSet toSparse(BitSet bits) {
+        // set in random order to exercise the insert
+        int[] indices = new int[bits.cardinality()];
+        int n = 0;
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            indices[n++] = i;
+        }
+        for (int i = indices.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = indices[i];
+            indices[i] = indices[j];
+            indices[j] = tmp;
+        }
+        SparseBitSet set = new SparseBitSet();
+        for (int index : indices) {
+            set.set(index);
+        }
+        for (int i = bits.nextSetBit(0), j = set.nextSetBit(0); i >= 0 || j >= 0;
+             i = bits.nextSetBit(i + 1), j = set.nextSetBit(j + 1)) {
+            assertThat(j).isEqualTo(i);
+        }
+        return set;
+    }
+}